@@ -0,0 +1,182 @@
+package coreUtilities.testlisteners;
+
+import static coreUtilities.testutils.TestUtils.businessTestFile;
+import static coreUtilities.testutils.TestUtils.yakshaAssert;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.testng.ITestResult;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+
+import coreUtilities.utils.StreamingReportWriter;
+
+/**
+ * Moves the slow part of the listener callbacks off the test threads.
+ *
+ * Callbacks put an event on a lock-free queue and return; one consumer thread
+ * takes the events in order and does the console output, the Extent report
+ * writes, the streamed report rows and the result publishing. As only the
+ * consumer touches the Extent tests, they are kept in a plain map instead of
+ * per-thread state. {@link #drain(long)} waits until every event submitted
+ * before it has been handled.
+ */
+class ListenerPipeline {
+
+	enum Kind {
+		STARTED, PASSED, FAILED, SKIPPED, RETRIED, BARRIER
+	}
+
+	private final ExtentReports extent;
+	private final StreamingReportWriter report;
+	private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+	private final Map<ITestResult, ExtentTest> tests = new IdentityHashMap<>();
+	private final Thread consumer;
+
+	private volatile boolean waiting;
+
+	/**
+	 * @param extent - the Extent report, null to leave it out
+	 * @param report - the streamed report, null to leave it out
+	 */
+	ListenerPipeline(ExtentReports extent, StreamingReportWriter report) {
+		this.extent = extent;
+		this.report = report;
+		consumer = new Thread(this::run, "test-listener");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/**
+	 * @param kind   - what happened
+	 * @param result - the test it happened to
+	 */
+	void submit(Kind kind, ITestResult result) {
+		queue.offer(new Event(kind, result, null));
+		if (waiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	/**
+	 * @param timeoutMillis - longest time to wait
+	 * @return {@link Boolean} - true when all earlier events were handled in
+	 *         time
+	 */
+	boolean drain(long timeoutMillis) {
+		CountDownLatch done = new CountDownLatch(1);
+		queue.offer(new Event(Kind.BARRIER, null, done));
+		LockSupport.unpark(consumer);
+		try {
+			return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	// The flag is set before the queue is checked once more, so a producer
+	// either sees it and unparks or its event is found by that check
+	private void run() {
+		while (true) {
+			Event event = queue.poll();
+			if (event == null) {
+				waiting = true;
+				if (queue.isEmpty()) {
+					LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+				}
+				waiting = false;
+				continue;
+			}
+			try {
+				handle(event);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void handle(Event event) {
+		if (event.kind == Kind.BARRIER) {
+			event.done.countDown();
+			return;
+		}
+		ITestResult result = event.result;
+		String name = result.getMethod().getMethodName();
+		switch (event.kind) {
+		case STARTED:
+			System.out.println(name + " started!");
+			if (extent != null) {
+				tests.put(result, extent.createTest(name, result.getMethod().getDescription()));
+			}
+			return;
+		case PASSED:
+			System.out.println(name + " passed!");
+			if (extent != null) {
+				test(result).pass("Test passed");
+			}
+			publish(name, true);
+			break;
+		case FAILED:
+			System.out.println(name + " failed!");
+			System.out.println(result.getThrowable().toString());
+			publish(name, false);
+			if (extent != null) {
+				test(result).fail(result.getThrowable());
+			}
+			break;
+		case RETRIED:
+			System.out.println(name + " failed and is retried: " + result.getThrowable());
+			if (extent != null) {
+				test(result).skip(result.getThrowable());
+			}
+			break;
+		default:
+			System.out.println(name + " skipped!");
+			publish(name, false);
+			if (extent != null) {
+				test(result).skip(result.getThrowable());
+			}
+		}
+		if (report != null) {
+			report.testFinished(name, result.getTestClass().getRealClass().getSimpleName(), event.kind.name(),
+					result.getStartMillis(), Math.max(0, result.getEndMillis() - result.getStartMillis()),
+					result.getThrowable());
+		}
+	}
+
+	// A test skipped because of a failed dependency never started
+	private ExtentTest test(ITestResult result) {
+		ExtentTest test = tests.remove(result);
+		return test != null ? test
+				: extent.createTest(result.getMethod().getMethodName(), result.getMethod().getDescription());
+	}
+
+	private static void publish(String name, boolean passed) {
+		try {
+			yakshaAssert(name, passed, businessTestFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static class Event {
+		private final Kind kind;
+		private final ITestResult result;
+		private final CountDownLatch done;
+
+		private Event(Kind kind, ITestResult result, CountDownLatch done) {
+			this.kind = kind;
+			this.result = result;
+			this.done = done;
+		}
+	}
+}
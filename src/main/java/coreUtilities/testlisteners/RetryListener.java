@@ -4,16 +4,23 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 
 import org.testng.IAnnotationTransformer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.annotations.ITestAnnotation;
 
 import coreUtilities.testutils.RetryAnalyzer;
 
 
 
-public class RetryListener implements IAnnotationTransformer
+public class RetryListener implements IAnnotationTransformer, ISuiteListener
 {
 	public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
 		annotation.setRetryAnalyzer(RetryAnalyzer.class);
 	}
 
+	// Every suite starts with the full retry budget
+	public void onStart(ISuite suite) {
+		RetryAnalyzer.resetBudget();
+	}
+
 }
\ No newline at end of file
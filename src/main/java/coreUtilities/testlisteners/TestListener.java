@@ -5,12 +5,17 @@ import org.testng.ITestListener;
 import org.testng.ITestResult;
 
 import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
 
+import coreUtilities.testlisteners.ListenerPipeline.Kind;
+import coreUtilities.testutils.ResultAggregator;
+import coreUtilities.testutils.ResultAggregator.Outcome;
+import coreUtilities.testutils.ResultPublisher;
+import coreUtilities.testutils.TestUtils;
 import coreUtilities.utils.ExtentReportManager;
-import static coreUtilities.testutils.TestUtils.businessTestFile;
-import static coreUtilities.testutils.TestUtils.currentTest;
-import static coreUtilities.testutils.TestUtils.yakshaAssert;
+import coreUtilities.utils.StreamingReportWriter;
+import rest.RequestMetrics;
+import rest.ResponseLog;
+import restConfig.ConfigManager;
 
 import java.io.IOException;
 
@@ -20,60 +25,87 @@ public class TestListener implements ITestListener
 {
 
 	//Extent Report Declarations
-    private static ExtentReports extent = ExtentReportManager.createInstance();
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<ExtentTest>();
+    // The Extent report keeps every test in memory until onFinish; long runs can turn
+    // it off and rely on the streamed report, written as tests finish
+    private static ExtentReports extent = ConfigManager.getBoolean("report.extent.enabled", true)
+            ? ExtentReportManager.createInstance() : null;
+    private static final StreamingReportWriter report = StreamingReportWriter.getDefault();
+    // Console output, report writes and result publishing run on the pipeline's thread
+    private static final ListenerPipeline pipeline = new ListenerPipeline(extent, report);
  
-    public synchronized void onStart(ITestContext context) {
+    public void onStart(ITestContext context) {
         System.out.println("Extent Reports Version 3 Test Suite started!");
     }
  
-    public synchronized void onFinish(ITestContext context) {
+    public void onFinish(ITestContext context) {
+        if (!pipeline.drain(ConfigManager.getLong("listener.drain.timeout.ms", 30000))) {
+            System.out.println("Not all test events were handled before the timeout");
+        }
         System.out.println(("Extent Reports Version 3  Test Suite is ending!"));
-        extent.flush();
-    }
- 
-    public synchronized void onTestStart(ITestResult result) {
-        System.out.println((result.getMethod().getMethodName() + " started!"));
-        ExtentTest extentTest = extent.createTest(result.getMethod().getMethodName(),result.getMethod().getDescription());
-        test.set(extentTest);
-    }
- 
-    public synchronized void onTestSuccess(ITestResult result) {
-       System.out.println((result.getMethod().getMethodName() + " passed!"));
-        test.get().pass("Test passed");
+        if (extent != null) {
+            extent.flush();
+        }
+        if (report != null) {
+            try {
+                report.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        TestUtils.testReport();
+        if (!ResultPublisher.getDefault().flush(ConfigManager.getLong("results.flush.timeout.ms", 30000))) {
+            System.out.println("Not all test results were published before the timeout");
+        }
         try {
-            yakshaAssert(result.getMethod().getMethodName(), true, businessTestFile);
+            RequestMetrics.writeReport();
         } catch (IOException e) {
-            // TODO Auto-generated catch block
             e.printStackTrace();
         }
     }
  
-    public synchronized void onTestFailure(ITestResult result) {
-        System.out.println((result.getMethod().getMethodName() + " failed!"));
-        System.out.println(result.getThrowable().toString());
-        try {
-            yakshaAssert(result.getMethod().getMethodName(), false, businessTestFile);
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        test.get().fail(result.getThrowable());
+    public void onTestStart(ITestResult result) {
+        ResponseLog.testStarted();
+        pipeline.submit(Kind.STARTED, result);
     }
  
-    public synchronized void onTestSkipped(ITestResult result) {
-        System.out.println((result.getMethod().getMethodName() + " skipped!"));
-        try {
-            yakshaAssert(result.getMethod().getMethodName(), false, businessTestFile);
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+    public void onTestSuccess(ITestResult result) {
+        ResponseLog.testFinished();
+        record(result, Outcome.PASSED);
+        pipeline.submit(Kind.PASSED, result);
+    }
+ 
+    // The responses remembered for the test are per thread, so they are printed here
+    public void onTestFailure(ITestResult result) {
+        ResponseLog.testFailed(result.getMethod().getMethodName());
+        record(result, Outcome.FAILED);
+        pipeline.submit(Kind.FAILED, result);
+    }
+ 
+    // A failed attempt that RetryAnalyzer runs again is reported as skipped;
+    // only the outcome of the last attempt is counted and published
+    public void onTestSkipped(ITestResult result) {
+        ResponseLog.testFinished();
+        if (result.wasRetried()) {
+            pipeline.submit(Kind.RETRIED, result);
+            return;
         }
-        test.get().skip(result.getThrowable());
+        record(result, Outcome.SKIPPED);
+        pipeline.submit(Kind.SKIPPED, result);
     }
  
+    // Callbacks run on the test threads without a common lock: the result
+    // counts are lock-free and everything else goes through the pipeline
+    private static void record(ITestResult result, Outcome outcome) {
+        String[] groups = result.getMethod().getGroups();
+        if (groups.length == 0) {
+            groups = new String[] { result.getTestClass().getRealClass().getSimpleName() };
+        }
+        ResultAggregator.getDefault().record(outcome, Math.max(0, result.getEndMillis() - result.getStartMillis()),
+                groups);
+    }
+
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
         System.out.println(("onTestFailedButWithinSuccessPercentage for " + result.getMethod().getMethodName()));
     }	
 
-}
\ No newline at end of file
+}
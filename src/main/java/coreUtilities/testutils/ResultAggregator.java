@@ -0,0 +1,177 @@
+package coreUtilities.testutils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts test outcomes from parallel listener callbacks without a shared lock.
+ *
+ * Suite totals are {@link LongAdder}s and can be read at any time. The
+ * per-group breakdown is made of LongAdders too, one set per group, so
+ * threads finishing tests of the same group update striped cells rather than
+ * one shared counter. Nothing is kept per thread: a pool of short-lived or
+ * virtual test threads does not leave state behind.
+ */
+public class ResultAggregator {
+
+	public enum Outcome {
+		PASSED, FAILED, SKIPPED
+	}
+
+	private static final ResultAggregator DEFAULT = new ResultAggregator();
+
+	private final LongAdder passed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+	private final LongAdder durationMillis = new LongAdder();
+	private final ConcurrentMap<String, GroupCounters> groups = new ConcurrentHashMap<>();
+
+	/**
+	 * @return {@link ResultAggregator} - the aggregator fed by TestListener
+	 */
+	public static ResultAggregator getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * This method counts one finished test.
+	 *
+	 * @param outcome        - how the test ended
+	 * @param durationMillis - how long it ran
+	 * @param groups         - groups the test belongs to, each credited with it
+	 */
+	public void record(Outcome outcome, long durationMillis, String... groups) {
+		counter(outcome).increment();
+		this.durationMillis.add(durationMillis);
+		for (String group : groups) {
+			GroupCounters counters = this.groups.get(group);
+			if (counters == null) {
+				counters = this.groups.computeIfAbsent(group, name -> new GroupCounters());
+			}
+			counters.add(outcome, durationMillis);
+		}
+	}
+
+	public long getTotal() {
+		return passed.sum() + failed.sum() + skipped.sum();
+	}
+
+	public long getPassed() {
+		return passed.sum();
+	}
+
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	public long getSkipped() {
+		return skipped.sum();
+	}
+
+	/**
+	 * @return {@link Long} - summed run time of all tests; more than the wall
+	 *         time when they run in parallel
+	 */
+	public long getDurationMillis() {
+		return durationMillis.sum();
+	}
+
+	/**
+	 * This method takes a snapshot of the per-group counts. The counts of a
+	 * group may be mid-update when a test of it finishes meanwhile, so call it
+	 * when no test is running for exact figures.
+	 *
+	 * @return {@link Map} - counts per group, sorted by group name
+	 */
+	public Map<String, GroupStats> groups() {
+		Map<String, GroupStats> snapshot = new TreeMap<>();
+		for (Map.Entry<String, GroupCounters> entry : groups.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	private LongAdder counter(Outcome outcome) {
+		switch (outcome) {
+		case PASSED:
+			return passed;
+		case FAILED:
+			return failed;
+		default:
+			return skipped;
+		}
+	}
+
+	private static class GroupCounters {
+		private final LongAdder passed = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder skipped = new LongAdder();
+		private final LongAdder durationMillis = new LongAdder();
+		private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+
+		private void add(Outcome outcome, long millis) {
+			switch (outcome) {
+			case PASSED:
+				passed.increment();
+				break;
+			case FAILED:
+				failed.increment();
+				break;
+			default:
+				skipped.increment();
+			}
+			durationMillis.add(millis);
+			maxMillis.accumulate(millis);
+		}
+
+		private GroupStats snapshot() {
+			GroupStats stats = new GroupStats();
+			stats.passed = passed.sum();
+			stats.failed = failed.sum();
+			stats.skipped = skipped.sum();
+			stats.durationMillis = durationMillis.sum();
+			stats.maxMillis = maxMillis.get();
+			return stats;
+		}
+	}
+
+	/**
+	 * Outcome counts and run time of the tests of one group.
+	 */
+	public static class GroupStats {
+		private long passed;
+		private long failed;
+		private long skipped;
+		private long durationMillis;
+		private long maxMillis;
+
+		public long getTotal() {
+			return passed + failed + skipped;
+		}
+
+		public long getPassed() {
+			return passed;
+		}
+
+		public long getFailed() {
+			return failed;
+		}
+
+		public long getSkipped() {
+			return skipped;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+
+		public long getMaxMillis() {
+			return maxMillis;
+		}
+	}
+}
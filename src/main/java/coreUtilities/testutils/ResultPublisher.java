@@ -0,0 +1,385 @@
+package coreUtilities.testutils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import restConfig.ConfigManager;
+
+/**
+ * Sends test results to the results URL from a background thread, so test
+ * threads only put a record on a queue.
+ *
+ * The worker takes results in batches of up to results.batch.size (default
+ * 20), waiting at most results.batch.ms (default 500) for a batch to fill,
+ * and posts them one after the other over a kept-alive connection; the
+ * endpoint accepts a single result per request. Only a 2xx answer counts as
+ * delivered. A request that fails with an I/O error, 429 or a 5xx answer is
+ * retried up to results.retry.max times (default 3), doubling the pause from
+ * results.retry.backoff.ms (default 200) each time; any other answer is logged
+ * and the result treated as failed without retrying. Connecting and reading
+ * the answer give up after results.connect.timeout.ms (default 5000) and
+ * results.read.timeout.ms (default 10000). {@link #flush(long)} waits until
+ * everything queued so far has been sent; a shutdown hook does the same when
+ * the JVM exits.
+ *
+ * With a {@link ResultSpool} (results.spool.file, default
+ * TestReport/results.spool) every result is written to disk before it is
+ * queued and marked there once the endpoint accepted it. Results that still
+ * failed after their retries are tried again whenever the worker has been idle
+ * for results.spool.replay.ms (default 5000), and results left over by an
+ * earlier run are sent first, so an endpoint outage does not lose them. A
+ * result the endpoint rejected stays in the spool as well, behind the others.
+ *
+ * Each publisher runs one worker thread and registers one shutdown hook;
+ * {@link #close()} releases both for a publisher that is not used any more.
+ */
+public class ResultPublisher implements Closeable {
+
+	private static final long MAX_BACKOFF_MS = 5000;
+
+	private static volatile ResultPublisher defaultPublisher;
+
+	private final String url;
+	private final int batchSize;
+	private final long batchMillis;
+	private final int maxRetries;
+	private final long backoffMillis;
+	private final ResultSpool spool;
+	private final long replayMillis;
+	private final Thread worker;
+	private final Thread shutdownHook;
+	private final int connectTimeout = ConfigManager.getInt("results.connect.timeout.ms", 5000);
+	private final int readTimeout = ConfigManager.getInt("results.read.timeout.ms", 10000);
+	private final BlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+	private final List<Item> failed = new ArrayList<>();
+
+	private long queued;
+	private long done;
+
+	/**
+	 * @param url           - where results are posted
+	 * @param batchSize     - results taken from the queue at once
+	 * @param batchMillis   - how long a batch waits to fill up
+	 * @param maxRetries    - retries of a failed request
+	 * @param backoffMillis - pause before the first retry
+	 */
+	public ResultPublisher(String url, int batchSize, long batchMillis, int maxRetries, long backoffMillis) {
+		this(url, batchSize, batchMillis, maxRetries, backoffMillis, null, 0);
+	}
+
+	/**
+	 * Queues the results left pending in the spool by an earlier run ahead of
+	 * any new ones.
+	 *
+	 * @param url           - where results are posted
+	 * @param batchSize     - results taken from the queue at once
+	 * @param batchMillis   - how long a batch waits to fill up
+	 * @param maxRetries    - retries of a failed request
+	 * @param backoffMillis - pause before the first retry
+	 * @param spool         - where results are kept until sent, null for none
+	 * @param replayMillis  - idle time after which failed results are tried
+	 *                      again
+	 */
+	public ResultPublisher(String url, int batchSize, long batchMillis, int maxRetries, long backoffMillis,
+			ResultSpool spool, long replayMillis) {
+		this.url = url;
+		this.batchSize = batchSize;
+		this.batchMillis = batchMillis;
+		this.maxRetries = maxRetries;
+		this.backoffMillis = backoffMillis;
+		this.spool = spool;
+		this.replayMillis = replayMillis;
+		if (spool != null) {
+			for (ResultSpool.Entry entry : spool.takeRecovered()) {
+				queued++;
+				queue.add(new Item(entry.getJson(), entry));
+			}
+		}
+		worker = new Thread(this::run, "result-publisher");
+		worker.setDaemon(true);
+		worker.start();
+		shutdownHook = new Thread(() -> {
+			flush(10000);
+			if (spool != null) {
+				try {
+					spool.close();
+				} catch (IOException e) {
+					System.out.println("Could not close " + spool.getFile() + ": " + e);
+				}
+			}
+		}, "result-publisher-flush");
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * @return {@link ResultPublisher} - the publisher used by
+	 *         TestUtils.yakshaAssert, posting to {@link TestUtils#URL}
+	 */
+	public static ResultPublisher getDefault() {
+		ResultPublisher publisher = defaultPublisher;
+		if (publisher == null) {
+			synchronized (ResultPublisher.class) {
+				publisher = defaultPublisher;
+				if (publisher == null) {
+					publisher = new ResultPublisher(TestUtils.URL, ConfigManager.getInt("results.batch.size", 20),
+							ConfigManager.getLong("results.batch.ms", 500), ConfigManager.getInt("results.retry.max", 3),
+							ConfigManager.getLong("results.retry.backoff.ms", 200), openSpool(),
+							ConfigManager.getLong("results.spool.replay.ms", 5000));
+					defaultPublisher = publisher;
+				}
+			}
+		}
+		return publisher;
+	}
+
+	private static ResultSpool openSpool() {
+		String path = ConfigManager.getProperty("results.spool.file", "TestReport/results.spool").trim();
+		if (path.isEmpty()) {
+			return null;
+		}
+		try {
+			return new ResultSpool(new File(path), 1 << 20);
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Test results are not spooled to " + path + ": " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method queues a result and returns immediately.
+	 *
+	 * @param testResults - the result to post
+	 */
+	public void publish(TestResults testResults) {
+		String json = TestUtils.asJsonString(testResults);
+		Item item = new Item(json, spool == null ? null : spool.append(json));
+		synchronized (this) {
+			queued++;
+		}
+		queue.add(item);
+	}
+
+	/**
+	 * This method waits until every result queued before the call has been
+	 * sent, or given up on after its retries.
+	 *
+	 * @param timeoutMillis - longest time to wait
+	 * @return {@link Boolean} - true when everything was sent in time
+	 */
+	public synchronized boolean flush(long timeoutMillis) {
+		long target = queued;
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (done < target) {
+			long left = deadline - System.currentTimeMillis();
+			if (left <= 0) {
+				return false;
+			}
+			try {
+				wait(left);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return {@link Integer} - results that failed after their retries and wait
+	 *         for the next replay
+	 */
+	public int getFailedCount() {
+		synchronized (failed) {
+			return failed.size();
+		}
+	}
+
+	/**
+	 * This method stops the worker and removes the shutdown hook without
+	 * waiting for queued results; call {@link #flush(long)} first to send them.
+	 * Results not sent stay in the spool, which is left open for its owner to
+	 * close.
+	 */
+	@Override
+	public void close() {
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// The JVM is already shutting down and runs the hook
+		}
+		worker.interrupt();
+		try {
+			worker.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		List<Item> batch = new ArrayList<>(batchSize);
+		while (true) {
+			try {
+				Item first = getFailedCount() == 0 ? queue.take()
+						: queue.poll(replayMillis, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					replay();
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.currentTimeMillis() + batchMillis;
+				while (batch.size() < batchSize) {
+					Item next = queue.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+			for (Item item : batch) {
+				if (Thread.currentThread().isInterrupted()) {
+					// Closed; what is left stays in the spool
+					return;
+				}
+				if (deliver(item) != Outcome.SENT && item.entry != null) {
+					synchronized (failed) {
+						failed.add(item);
+					}
+				}
+				synchronized (this) {
+					done++;
+					notifyAll();
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	// Stops at the first result that fails again, as the endpoint is most likely
+	// still unavailable; a rejected result goes to the back so it does not hold
+	// up the others
+	private void replay() {
+		int left;
+		synchronized (failed) {
+			left = failed.size();
+		}
+		for (; left > 0; left--) {
+			Item item;
+			synchronized (failed) {
+				if (failed.isEmpty()) {
+					return;
+				}
+				item = failed.get(0);
+			}
+			Outcome outcome = deliver(item);
+			if (outcome == Outcome.FAILED) {
+				return;
+			}
+			synchronized (failed) {
+				failed.remove(0);
+				if (outcome == Outcome.REJECTED) {
+					failed.add(item);
+				}
+			}
+		}
+	}
+
+	private Outcome deliver(Item item) {
+		Outcome outcome = send(item.json);
+		if (outcome == Outcome.SENT && item.entry != null) {
+			spool.markSent(item.entry);
+		}
+		return outcome;
+	}
+
+	private Outcome send(String json) {
+		long pause = backoffMillis;
+		for (int attempt = 0;; attempt++) {
+			String failure;
+			try {
+				int status = post(json);
+				if (status >= 200 && status < 300) {
+					return Outcome.SENT;
+				}
+				if (status < 500 && status != 429) {
+					System.out.println("The results endpoint rejected a test result with HTTP " + status
+							+ (spool == null ? "" : ", kept in " + spool.getFile()));
+					return Outcome.REJECTED;
+				}
+				failure = "HTTP " + status;
+			} catch (IOException e) {
+				failure = e.toString();
+			}
+			if (attempt >= maxRetries) {
+				System.out.println("Could not publish a test result after " + (attempt + 1) + " attempts: " + failure
+						+ (spool == null ? "" : ", kept in " + spool.getFile()));
+				return Outcome.FAILED;
+			}
+			try {
+				Thread.sleep(pause);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return Outcome.FAILED;
+			}
+			pause = Math.min(pause * 2, MAX_BACKOFF_MS);
+		}
+	}
+
+	// The response is read to the end and the connection is not disconnected,
+	// which leaves the socket in the JDK's keep-alive cache for the next post
+	private int post(String json) throws IOException {
+		HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+		conn.setConnectTimeout(connectTimeout);
+		conn.setReadTimeout(readTimeout);
+		conn.setDoOutput(true);
+		conn.setRequestMethod("POST");
+		conn.setRequestProperty("Content-Type", "application/json");
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		conn.setFixedLengthStreamingMode(body.length);
+		try (OutputStream os = conn.getOutputStream()) {
+			os.write(body);
+		}
+		int status = conn.getResponseCode();
+		InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+		if (in != null) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			try (InputStream response = in) {
+				byte[] buffer = new byte[4096];
+				for (int count; (count = response.read(buffer)) > 0;) {
+					output.write(buffer, 0, count);
+				}
+			}
+			if (output.size() > 0 && status < 500 && status != 429) {
+				System.out.println(new String(output.toByteArray(), StandardCharsets.UTF_8).trim());
+			}
+		}
+		return status;
+	}
+
+	private enum Outcome {
+		SENT, REJECTED, FAILED
+	}
+
+	private static class Item {
+		private final String json;
+		private final ResultSpool.Entry entry;
+
+		private Item(String json, ResultSpool.Entry entry) {
+			this.json = json;
+			this.entry = entry;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package coreUtilities.testutils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of result payloads that have not been confirmed by the
+ * results endpoint yet, written through a memory mapping so an append is a copy
+ * into the page cache and survives the JVM dying right after it.
+ *
+ * Layout after an 8-byte header, one record after the other:
+ *
+ * <pre>
+ * int  length  - payload bytes; written last, so a record cut short by a crash
+ *                reads as the end of the file
+ * int  crc     - CRC32 of the payload
+ * byte state   - PENDING or SENT, the only byte changed after the append
+ * long id      - increasing record number
+ * byte[]       - the UTF-8 payload
+ * </pre>
+ *
+ * When the file is opened again, pending records are handed out once more,
+ * skipping any whose id was already sent or is pending twice; records with the
+ * same payload but their own id are separate results and all kept. Once nothing
+ * is pending the next append starts over at the beginning of the file; until
+ * then the file grows by doubling.
+ */
+public class ResultSpool implements Closeable {
+
+	private static final long MAGIC = 0x5941_4b53_5350_4c31L;
+	private static final int HEADER = 8;
+	private static final int RECORD_HEADER = 4 + 4 + 1 + 8;
+	private static final byte PENDING = 1;
+	private static final byte SENT = 2;
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final FileLock lock;
+	private final List<Entry> recovered = new ArrayList<>();
+
+	private MappedByteBuffer buffer;
+	private int end;
+	private long nextId = 1;
+	private int pending;
+
+	/**
+	 * Opens the spool, creating the file when needed, and reads the records
+	 * left by an earlier run.
+	 *
+	 * @param file         - the spool file
+	 * @param initialBytes - size of a new file
+	 * @throws IOException when the file cannot be mapped or another process
+	 *                     already uses it
+	 */
+	public ResultSpool(File file, int initialBytes) throws IOException {
+		this.file = file;
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (directory != null) {
+			directory.mkdirs();
+		}
+		raf = new RandomAccessFile(file, "rw");
+		channel = raf.getChannel();
+		lock = channel.tryLock();
+		if (lock == null) {
+			raf.close();
+			throw new IOException(file + " is in use by another process");
+		}
+		boolean fresh = raf.length() < HEADER;
+		map((int) Math.max(raf.length(), Math.max(initialBytes, HEADER + RECORD_HEADER)));
+		if (fresh || buffer.getLong(0) != MAGIC) {
+			buffer.putLong(0, MAGIC);
+			buffer.putInt(HEADER, 0);
+			end = HEADER;
+		} else {
+			recover();
+		}
+	}
+
+	/**
+	 * This method stores a payload before it is sent.
+	 *
+	 * @param json - the payload
+	 * @return {@link Entry} - the record, to be passed to
+	 *         {@link #markSent(Entry)} once the endpoint accepted it
+	 */
+	public synchronized Entry append(String json) {
+		byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+		int size = RECORD_HEADER + payload.length;
+		if (pending == 0) {
+			end = HEADER;
+		}
+		if ((long) end + size + 4 > buffer.capacity()) {
+			long capacity = buffer.capacity();
+			while (capacity < (long) end + size + 4) {
+				capacity *= 2;
+			}
+			if (capacity > Integer.MAX_VALUE) {
+				throw new IllegalStateException(file + " cannot grow beyond 2 GB");
+			}
+			map((int) capacity);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		int offset = end;
+		buffer.putInt(offset + size, 0);
+		buffer.putInt(offset + 4, (int) crc.getValue());
+		buffer.put(offset + 8, PENDING);
+		buffer.putLong(offset + 9, nextId);
+		for (int i = 0; i < payload.length; i++) {
+			buffer.put(offset + RECORD_HEADER + i, payload[i]);
+		}
+		buffer.putInt(offset, payload.length);
+		end = offset + size;
+		pending++;
+		return new Entry(this, offset, nextId++, json);
+	}
+
+	/**
+	 * @param entry - a record of this spool
+	 */
+	public synchronized void markSent(Entry entry) {
+		if (entry.spool != this || entry.sent) {
+			return;
+		}
+		entry.sent = true;
+		buffer.put(entry.offset + 8, SENT);
+		pending--;
+	}
+
+	/**
+	 * @return {@link List} - the records found pending when the spool was
+	 *         opened, without duplicates; each call returns them only once
+	 */
+	public synchronized List<Entry> takeRecovered() {
+		List<Entry> entries = new ArrayList<>(recovered);
+		recovered.clear();
+		return entries;
+	}
+
+	/**
+	 * @return {@link Integer} - records not marked sent yet
+	 */
+	public synchronized int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * @return {@link File} - the spool file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * This method forces the mapped pages to disk and releases the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		buffer.force();
+		lock.release();
+		raf.close();
+	}
+
+	private void map(int capacity) {
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not map " + file, e);
+		}
+	}
+
+	private void recover() {
+		Set<Long> sent = new HashSet<>();
+		List<Entry> found = new ArrayList<>();
+		int offset = HEADER;
+		while (offset + RECORD_HEADER <= buffer.capacity()) {
+			int length = buffer.getInt(offset);
+			if (length <= 0 || (long) offset + RECORD_HEADER + length > buffer.capacity()) {
+				break;
+			}
+			byte[] payload = new byte[length];
+			for (int i = 0; i < length; i++) {
+				payload[i] = buffer.get(offset + RECORD_HEADER + i);
+			}
+			CRC32 crc = new CRC32();
+			crc.update(payload);
+			if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+				break;
+			}
+			long id = buffer.getLong(offset + 9);
+			String json = new String(payload, StandardCharsets.UTF_8);
+			Entry entry = new Entry(this, offset, id, json);
+			if (buffer.get(offset + 8) == SENT) {
+				entry.sent = true;
+				sent.add(id);
+			} else {
+				found.add(entry);
+			}
+			nextId = Math.max(nextId, id + 1);
+			offset += RECORD_HEADER + length;
+		}
+		end = offset;
+		// Skipped copies are left as they are: marking one sent would make its id
+		// count as sent on the next recovery and drop the copy that was kept
+		Set<Long> kept = new HashSet<>();
+		for (Entry entry : found) {
+			if (!sent.contains(entry.id) && kept.add(entry.id)) {
+				recovered.add(entry);
+				pending++;
+			}
+		}
+	}
+
+	/**
+	 * One spooled payload.
+	 */
+	public static class Entry {
+		private final ResultSpool spool;
+		private final int offset;
+		private final long id;
+		private final String json;
+		private boolean sent;
+
+		private Entry(ResultSpool spool, int offset, long id, String json) {
+			this.spool = spool;
+			this.offset = offset;
+			this.id = id;
+			this.json = json;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public String getJson() {
+			return json;
+		}
+	}
+}
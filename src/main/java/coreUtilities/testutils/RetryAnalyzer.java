@@ -1,22 +1,162 @@
 package coreUtilities.testutils;
 
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
+import coreUtilities.utils.Log;
+import rest.CustomResponse;
+import restConfig.ConfigManager;
+
+/**
+ * Runs a failed test again only when the failure looks transient.
+ *
+ * A failure is transient when its cause chain holds a socket timeout, a
+ * refused or reset connection or a missing response, or when the last response
+ * the test received has one of the retry.statuses (default 429,502,503,504).
+ * That second case covers assertions on the status code failing because the
+ * server was unavailable; any other failed assertion or error is never
+ * retried.
+ *
+ * A test is run at most retry.max (default 2) extra times. Before each retry
+ * the test thread waits for the Retry-After of the response when it has one,
+ * else for a random time between half and all of retry.backoff.ms (default
+ * 500) doubled per retry, never longer than retry.backoff.max.ms (default
+ * 30000). All tests of a suite share retry.budget (default 10) retries, so a
+ * server that is down is not hit with a retry of every test.
+ */
 public class RetryAnalyzer implements IRetryAnalyzer
 {
+	private static final AtomicInteger BUDGET = new AtomicInteger(ConfigManager.getInt("retry.budget", 10));
+
+	private static final Set<Integer> STATUSES = statuses(
+			ConfigManager.getProperty("retry.statuses", "429,502,503,504"));
+
 	int count=0;
-	int maxRetryLimit = 0;
+	int maxRetryLimit = ConfigManager.getInt("retry.max", 2);
 
 	@Override
 	public boolean retry(ITestResult result) {
-		
-		if(count<maxRetryLimit)
-		{
-			count++;
-			return true;
+		if (count >= maxRetryLimit) {
+			return false;
+		}
+		CustomResponse.Received received = CustomResponse.lastReceived();
+		if (received != null && received.getReceivedAt() < result.getStartMillis()) {
+			// Left over from an earlier test on this thread
+			received = null;
+		}
+		String cause = transientCause(result.getThrowable(), received);
+		if (cause == null) {
+			return false;
+		}
+		String name = result.getMethod().getMethodName();
+		if (!takeFromBudget()) {
+			Log.warn("Not retrying {} after {}: the retry budget of the suite is used up", name, cause);
+			return false;
+		}
+		long delay = delay(count, received);
+		count++;
+		Log.info("Retrying {} in {} ms after {}, retry {} of {}", name, delay, cause, count, maxRetryLimit);
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return true;
+	}
+
+	/**
+	 * This method refills the retry budget; RetryListener calls it when a suite
+	 * starts.
+	 */
+	public static void resetBudget() {
+		BUDGET.set(ConfigManager.getInt("retry.budget", 10));
+	}
+
+	/**
+	 * @return {@link Integer} - retries left in the current suite
+	 */
+	public static int getBudget() {
+		return BUDGET.get();
+	}
+
+	/**
+	 * @param failure  - what the test threw
+	 * @param received - the last response of the test, may be null
+	 * @return {@link String} - why the failure is transient, or null when the
+	 *         test must not be retried
+	 */
+	static String transientCause(Throwable failure, CustomResponse.Received received) {
+		int depth = 0;
+		for (Throwable cause = failure; cause != null && depth < 10; cause = cause.getCause(), depth++) {
+			if (cause instanceof SocketTimeoutException || cause instanceof ConnectTimeoutException
+					|| cause instanceof SocketException || cause instanceof NoHttpResponseException) {
+				return cause.toString();
+			}
+		}
+		if (received != null && STATUSES.contains(received.getStatusCode())) {
+			return "HTTP " + received.getStatusCode();
+		}
+		return null;
+	}
+
+	private static boolean takeFromBudget() {
+		while (true) {
+			int left = BUDGET.get();
+			if (left <= 0) {
+				return false;
+			}
+			if (BUDGET.compareAndSet(left, left - 1)) {
+				return true;
+			}
+		}
+	}
+
+	static long delay(int retries, CustomResponse.Received received) {
+		long max = ConfigManager.getLong("retry.backoff.max.ms", 30000);
+		long retryAfter = received == null ? -1 : retryAfterMillis(received.getRetryAfter());
+		if (retryAfter >= 0) {
+			return Math.min(retryAfter, max);
 		}
-		return false;
+		long backoff = Math.min(max, ConfigManager.getLong("retry.backoff.ms", 500) << Math.min(retries, 20));
+		return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
 	}
 
-}
\ No newline at end of file
+	// Retry-After is either a number of seconds or an HTTP date
+	private static long retryAfterMillis(String retryAfter) {
+		if (retryAfter == null || retryAfter.trim().isEmpty()) {
+			return -1;
+		}
+		try {
+			return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+		} catch (NumberFormatException e) {
+			try {
+				ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+				return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+			} catch (DateTimeParseException invalid) {
+				return -1;
+			}
+		}
+	}
+
+	private static Set<Integer> statuses(String list) {
+		Set<Integer> statuses = new HashSet<>();
+		for (String status : list.split(",")) {
+			if (!status.trim().isEmpty()) {
+				statuses.add(Integer.parseInt(status.trim()));
+			}
+		}
+		return statuses;
+	}
+}
@@ -0,0 +1,216 @@
+package coreUtilities.testutils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import coreUtilities.utils.ExcelDataProvider;
+import coreUtilities.utils.JsonCodec;
+import restConfig.ConfigManager;
+
+/**
+ * Row-oriented test data for TestNG data providers, handed out one row at a
+ * time.
+ *
+ * <pre>
+ * &#64;DataProvider(name = "appointments", parallel = true)
+ * public Iterator&lt;Object[]&gt; appointments() {
+ * 	return TestDataProvider.jsonRows("src/main/resources/testData/appointments.json");
+ * }
+ * </pre>
+ *
+ * JSON files are streamed: an array yields one row per element and is never
+ * read as a whole, any other value yields a single row. Excel sheets yield one
+ * row per line below the header line, as a map from column header to cell
+ * text; the sheet itself comes from the {@link ExcelDataProvider} cache, parsed
+ * once for all tests, and the maps are built as TestNG asks for them.
+ *
+ * The iterators can be shared by the threads of a parallel data provider. When
+ * data.shard.count (default 1) is above 1 a JVM only gets the rows whose
+ * position modulo the count equals data.shard.index, so forks given different
+ * indexes run different rows. The index is taken modulo the count, so
+ * surefire's 1-based ${surefire.forkNumber} can be passed as it is.
+ */
+public class TestDataProvider {
+
+	/**
+	 * @param jsonFilePath - a JSON array of objects, or a single object
+	 * @return {@link Iterator} - one Object[] per element, holding the element
+	 *         as a {@link Map}
+	 */
+	public static Iterator<Object[]> jsonRows(String jsonFilePath) {
+		return jsonRows(jsonFilePath, Map.class);
+	}
+
+	/**
+	 * @param jsonFilePath - a JSON array, or a single value
+	 * @param type         - what each element is read into, e.g. a payload
+	 *                     class
+	 * @return {@link Iterator} - one Object[] per element
+	 */
+	public static <T> Iterator<Object[]> jsonRows(String jsonFilePath, Class<T> type) {
+		MappingIterator<T> values;
+		try {
+			values = JsonCodec.reader(type).readValues(new File(jsonFilePath));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read " + jsonFilePath, e);
+		}
+		return shard(new Iterator<Object[]>() {
+			@Override
+			public boolean hasNext() {
+				boolean more = values.hasNext();
+				if (!more) {
+					closeQuietly(values);
+				}
+				return more;
+			}
+
+			@Override
+			public Object[] next() {
+				return new Object[] { values.next() };
+			}
+		});
+	}
+
+	/**
+	 * @param excelFilePath - {@link String} excel sheet location
+	 * @param sheetName     - sheet whose first line holds the column headers
+	 * @return {@link Iterator} - one Object[] per non-empty line, holding an
+	 *         unmodifiable {@link Map} from header to cell text
+	 */
+	public static Iterator<Object[]> excelRows(String excelFilePath, String sheetName) {
+		List<List<String>> rows;
+		try {
+			rows = ExcelDataProvider.readRows(excelFilePath, sheetName);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read " + excelFilePath, e);
+		}
+		List<String> header = rows.isEmpty() ? Collections.<String>emptyList() : rows.get(0);
+		Iterator<List<String>> lines = rows.subList(Math.min(1, rows.size()), rows.size()).iterator();
+		return shard(new Iterator<Object[]>() {
+			private Map<String, String> next = advance();
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public Object[] next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				Map<String, String> row = next;
+				next = advance();
+				return new Object[] { row };
+			}
+
+			private Map<String, String> advance() {
+				while (lines.hasNext()) {
+					Map<String, String> row = toMap(header, lines.next());
+					if (row != null) {
+						return row;
+					}
+				}
+				return null;
+			}
+		});
+	}
+
+	// Cells without a header are dropped; null when no cell is filled
+	private static Map<String, String> toMap(List<String> header, List<String> line) {
+		Map<String, String> row = new LinkedHashMap<>();
+		boolean filled = false;
+		for (int column = 0; column < header.size(); column++) {
+			String name = header.get(column);
+			if (name == null) {
+				continue;
+			}
+			String value = column < line.size() ? line.get(column) : null;
+			filled |= value != null && !value.isEmpty();
+			row.put(name, value);
+		}
+		return filled ? Collections.unmodifiableMap(row) : null;
+	}
+
+	/**
+	 * @param rows - all rows
+	 * @return {@link Iterator} - the rows of this JVM's shard, safe to use from
+	 *         several threads
+	 */
+	static Iterator<Object[]> shard(Iterator<Object[]> rows) {
+		int count = Math.max(1, ConfigManager.getInt("data.shard.count", 1));
+		int index = Math.floorMod(ConfigManager.getInt("data.shard.index", 0), count);
+		return new SynchronizedIterator(count == 1 ? rows : new ShardIterator(rows, index, count));
+	}
+
+	private static void closeQuietly(MappingIterator<?> values) {
+		try {
+			values.close();
+		} catch (IOException e) {
+			// Nothing is left to read
+		}
+	}
+
+	private static class ShardIterator implements Iterator<Object[]> {
+		private final Iterator<Object[]> rows;
+		private final int index;
+		private final int count;
+		private int position;
+		private Object[] next;
+
+		private ShardIterator(Iterator<Object[]> rows, int index, int count) {
+			this.rows = rows;
+			this.index = index;
+			this.count = count;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && rows.hasNext()) {
+				Object[] row = rows.next();
+				if (position++ % count == index) {
+					next = row;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public Object[] next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Object[] row = next;
+			next = null;
+			return row;
+		}
+	}
+
+	// TestNG may pull rows of a parallel data provider from several threads
+	private static class SynchronizedIterator implements Iterator<Object[]> {
+		private final Iterator<Object[]> rows;
+
+		private SynchronizedIterator(Iterator<Object[]> rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public synchronized boolean hasNext() {
+			return rows.hasNext();
+		}
+
+		@Override
+		public synchronized Object[] next() {
+			return rows.next();
+		}
+	}
+}
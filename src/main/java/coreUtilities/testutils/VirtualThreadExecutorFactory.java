@@ -0,0 +1,64 @@
+package coreUtilities.testutils;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.internal.thread.DefaultThreadPoolExecutorFactory;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+
+import coreUtilities.utils.VirtualThreads;
+import restConfig.ConfigManager;
+
+/**
+ * TestNG executor factory that runs parallel test methods on virtual threads.
+ *
+ * Registered with -threadpoolfactoryclass by the virtual-threads Maven
+ * profile. TestNG's own scheduling is kept; only the worker threads are
+ * replaced, and the worker count is raised to execution.virtualThreads.parallelism
+ * because a blocked virtual thread costs no OS thread. The number of requests
+ * actually on the wire is bounded separately by http.maxConcurrentRequests
+ * (see rest.RequestLimiter).
+ *
+ * When virtual threads are switched off or unavailable this behaves exactly
+ * like TestNG's default factory.
+ */
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+
+	private final IExecutorFactory delegate = new DefaultThreadPoolExecutorFactory();
+
+	@Override
+	public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+			IThreadWorkerFactory<ISuite> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+			TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+		return useVirtualThreads(delegate.newSuiteExecutor(name, graph, factory, corePoolSize, maximumPoolSize,
+				keepAliveTime, unit, workQueue, comparator));
+	}
+
+	@Override
+	public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+			IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+			TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ITestNGMethod> comparator) {
+		if (VirtualThreads.isEnabled()) {
+			int parallelism = Integer
+					.parseInt(ConfigManager.getProperty("execution.virtualThreads.parallelism", "256").trim());
+			corePoolSize = Math.max(corePoolSize, parallelism);
+			maximumPoolSize = Math.max(maximumPoolSize, parallelism);
+		}
+		return useVirtualThreads(delegate.newTestMethodExecutor(name, graph, factory, corePoolSize, maximumPoolSize,
+				keepAliveTime, unit, workQueue, comparator));
+	}
+
+	private static ITestNGThreadPoolExecutor useVirtualThreads(ITestNGThreadPoolExecutor executor) {
+		if (VirtualThreads.isEnabled() && executor instanceof ThreadPoolExecutor) {
+			((ThreadPoolExecutor) executor).setThreadFactory(VirtualThreads.factory());
+		}
+		return executor;
+	}
+}
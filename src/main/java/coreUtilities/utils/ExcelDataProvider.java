@@ -0,0 +1,222 @@
+package coreUtilities.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Reads Excel sheets once and shares the result.
+ *
+ * .xlsx files are read with the POI event model, which streams the sheet XML
+ * instead of building the workbook in memory; other formats fall back to a
+ * read-only workbook. Cells are turned into the text Excel displays, cached
+ * formula results included. The rows of a sheet are cached per file and sheet
+ * and read again only when the file's modification time or size changed; so
+ * is the finding that a file has no such sheet. The
+ * cached lists and maps are unmodifiable, so threads share them as they are.
+ */
+public class ExcelDataProvider {
+
+	private static final Map<String, SheetData> CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 * @param excelFilePath - {@link String} excel sheet location
+	 * @param sheetName     - {@link String} sheet to read
+	 * @return {@link List} - the rows present in the sheet, in order, each a
+	 *         list of cell texts up to the last filled cell; empty cells are
+	 *         null
+	 * @throws IOException when the file cannot be read
+	 * @throws IllegalArgumentException when the file has no such sheet
+	 */
+	public static List<List<String>> readRows(String excelFilePath, String sheetName) throws IOException {
+		return load(excelFilePath, sheetName).rows;
+	}
+
+	/**
+	 * @param excelFilePath - {@link String} excel sheet location
+	 * @param sheetName     - {@link String} sheet to read
+	 * @return {@link Map} - the second column of each row keyed by the first,
+	 *         for rows where both are filled, in sheet order
+	 * @throws IOException when the file cannot be read
+	 * @throws IllegalArgumentException when the file has no such sheet
+	 */
+	public static Map<String, String> readSheet(String excelFilePath, String sheetName) throws IOException {
+		return load(excelFilePath, sheetName).keyValues;
+	}
+
+	/**
+	 * This method forgets every cached sheet.
+	 */
+	public static void clearCache() {
+		CACHE.clear();
+	}
+
+	private static SheetData load(String excelFilePath, String sheetName) throws IOException {
+		SheetData sheet = loadCached(excelFilePath, sheetName);
+		if (sheet.rows == null) {
+			throw new IllegalArgumentException("No sheet " + sheetName + " in " + excelFilePath);
+		}
+		return sheet;
+	}
+
+	private static SheetData loadCached(String excelFilePath, String sheetName) throws IOException {
+		File file = new File(excelFilePath).getCanonicalFile();
+		if (!file.isFile()) {
+			throw new IOException("No Excel file " + file);
+		}
+		long modified = file.lastModified();
+		long length = file.length();
+		String key = file.getPath() + '\u0000' + sheetName;
+		SheetData cached = CACHE.get(key);
+		if (cached != null && cached.modified == modified && cached.length == length) {
+			return cached;
+		}
+		// compute() keeps threads asking for the same sheet from parsing it twice
+		try {
+			return CACHE.compute(key, (k, current) -> {
+				if (current != null && current.modified == modified && current.length == length) {
+					return current;
+				}
+				try {
+					return new SheetData(modified, length, parse(file, sheetName));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	// null when the file has no such sheet
+	private static List<List<String>> parse(File file, String sheetName) throws IOException {
+		if (FileMagic.valueOf(file) != FileMagic.OOXML) {
+			return parseWorkbook(file, sheetName);
+		}
+		try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+			XSSFReader reader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			StylesTable styles = reader.getStylesTable();
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (sheets.hasNext()) {
+				try (InputStream in = sheets.next()) {
+					if (sheetName.equals(sheets.getSheetName())) {
+						RowCollector rows = new RowCollector();
+						XMLReader xml = XMLHelper.newXMLReader();
+						xml.setContentHandler(
+								new XSSFSheetXMLHandler(styles, null, strings, rows, new DataFormatter(), false));
+						xml.parse(new InputSource(in));
+						return rows.rows;
+					}
+				}
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException("Could not read " + file, e);
+		}
+		return null;
+	}
+
+	private static List<List<String>> parseWorkbook(File file, String sheetName) throws IOException {
+		try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+			Sheet sheet = workbook.getSheet(sheetName);
+			if (sheet == null) {
+				return null;
+			}
+			DataFormatter formatter = new DataFormatter();
+			FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+			List<List<String>> rows = new ArrayList<>();
+			for (Row row : sheet) {
+				List<String> cells = new ArrayList<>();
+				for (int column = 0; column < row.getLastCellNum(); column++) {
+					Cell cell = row.getCell(column);
+					cells.add(cell == null ? null : formatter.formatCellValue(cell, evaluator));
+				}
+				rows.add(Collections.unmodifiableList(cells));
+			}
+			return rows;
+		}
+	}
+
+	private static class SheetData {
+		private final long modified;
+		private final long length;
+		private final List<List<String>> rows;
+		private final Map<String, String> keyValues;
+
+		private SheetData(long modified, long length, List<List<String>> rows) {
+			this.modified = modified;
+			this.length = length;
+			if (rows == null) {
+				this.rows = null;
+				this.keyValues = null;
+				return;
+			}
+			this.rows = Collections.unmodifiableList(rows);
+			Map<String, String> keyValues = new LinkedHashMap<>();
+			for (List<String> row : rows) {
+				if (row.size() > 1 && row.get(0) != null && row.get(1) != null) {
+					keyValues.put(row.get(0), row.get(1));
+				}
+			}
+			this.keyValues = Collections.unmodifiableMap(keyValues);
+		}
+	}
+
+	// Cells come in order but blank ones are left out, so the position is
+	// taken from the cell reference
+	private static class RowCollector implements SheetContentsHandler {
+		private final List<List<String>> rows = new ArrayList<>();
+		private List<String> cells;
+
+		@Override
+		public void startRow(int rowNum) {
+			cells = new ArrayList<>();
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			rows.add(Collections.unmodifiableList(cells));
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+			while (cells.size() < column) {
+				cells.add(null);
+			}
+			cells.add(formattedValue);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package coreUtilities.utils;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import restConfig.ConfigManager;
+
+/**
+ * The one Jackson mapper of the framework, and readers and writers built from
+ * it.
+ *
+ * Building a mapper is expensive, and each mapper learns how to read and write
+ * a type only on first use, so a mapper per call does that work every time.
+ * Readers and writers are kept per type and hold the serializer or
+ * deserializer of their root type, so reading a payload or writing a result
+ * after the first time goes straight to the cached code. The mapper, readers
+ * and writers are thread-safe; never reconfigure the mapper returned by
+ * {@link #mapper()}, change a reader or writer with its with* methods instead.
+ *
+ * Acceleration is opt-in: json.accelerator (empty by default) lists module
+ * classes to try, e.g. Afterburner, or Blackbird on builds for Java 11 and
+ * later, and the first one that loads is registered; both replace reflection
+ * with generated accessors. Neither ships with the framework, so add the
+ * module to the pom before naming it. Without any the plain mapper is used,
+ * and a listed module that cannot be loaded is logged.
+ */
+public class JsonCodec {
+
+	/**
+	 * A JSON object read into text values, as the testData payloads are read
+	 */
+	public static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<Map<String, String>>() {
+	};
+
+	private static final ObjectMapper MAPPER = createMapper();
+
+	private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+	private static final Map<Type, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+	/**
+	 * @return {@link ObjectMapper} - the shared mapper, for parsers, trees and
+	 *         one-off conversions
+	 */
+	public static ObjectMapper mapper() {
+		return MAPPER;
+	}
+
+	/**
+	 * @param type - class to read JSON into
+	 * @return {@link ObjectReader} - the reader for the type, built on first use
+	 */
+	public static ObjectReader reader(Class<?> type) {
+		return READERS.computeIfAbsent(type, t -> MAPPER.readerFor(type));
+	}
+
+	/**
+	 * @param type - generic type to read JSON into, e.g. {@link #STRING_MAP}
+	 * @return {@link ObjectReader} - the reader for the type, built on first use
+	 */
+	public static ObjectReader reader(TypeReference<?> type) {
+		return READERS.computeIfAbsent(type.getType(), t -> MAPPER.readerFor(type));
+	}
+
+	/**
+	 * @param type - class of the values written
+	 * @return {@link ObjectWriter} - the writer for the type, built on first use
+	 */
+	public static ObjectWriter writer(Class<?> type) {
+		return WRITERS.computeIfAbsent(type, t -> MAPPER.writerFor(type));
+	}
+
+	/**
+	 * @param type - generic type of the values written
+	 * @return {@link ObjectWriter} - the writer for the type, built on first use
+	 */
+	public static ObjectWriter writer(TypeReference<?> type) {
+		return WRITERS.computeIfAbsent(type.getType(), t -> MAPPER.writerFor(type));
+	}
+
+	/**
+	 * This method builds the readers and writers of the given classes now, so
+	 * the first test using them does not pay for it.
+	 *
+	 * @param types - classes read and written later
+	 */
+	public static void warmUp(Class<?>... types) {
+		for (Class<?> type : types) {
+			reader(type);
+			writer(type);
+		}
+	}
+
+	private static ObjectMapper createMapper() {
+		ObjectMapper mapper = new ObjectMapper();
+		String accelerators = ConfigManager.getProperty("json.accelerator", "");
+		for (String name : accelerators.split(",")) {
+			if (name.trim().isEmpty()) {
+				continue;
+			}
+			try {
+				Module module = (Module) Class.forName(name.trim()).getDeclaredConstructor().newInstance();
+				mapper.registerModule(module);
+				Log.debug("JSON mapper accelerated by {}", name.trim());
+				break;
+			} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+				// Not on the classpath or not usable on this JVM; try the next one
+				Log.warn("JSON accelerator {} not used: {}", name.trim(), e);
+			}
+		}
+		return mapper;
+	}
+}
@@ -1,149 +1,156 @@
 package coreUtilities.utils;
 
-
-
-
-
-import java.io.File;
-
 import java.lang.reflect.Method;
-
- 
+import java.net.URISyntaxException;
+import java.net.URL;
 
 import org.apache.logging.log4j.LogManager;
-
 import org.apache.logging.log4j.Logger;
-
 import org.apache.logging.log4j.core.LoggerContext;
-
 import org.testng.ITestContext;
 
- 
-
+/**
+ * Static logging helpers over one log4j2 logger.
+ *
+ * The level prefix ("> INFO: ") comes from the layout of the bundled
+ * log4j2.xml, so a message is handed to log4j as it is. The overloads taking
+ * {} placeholders format only when the level is enabled, and those with one or
+ * two arguments do not allocate an argument array; prefer them to
+ * concatenating on the hot path. The bundled configuration writes through an
+ * asynchronous appender, so test threads do not wait for the console.
+ */
 public class Log {
 
-    
-
-    public static Logger logger = LogManager.getLogger(Log.class.getName());    
-
- 
-
-    public static void logInitialize() {
-
-        LoggerContext context = (LoggerContext) LogManager.getContext(false);
-
-        File file = new File("src//test//Resources//log4j2.xml");    
-
-        context.setConfigLocation(file.toURI());
-
-    }
-
- 
-
-    public static void startTestSuite(ITestContext testContext) {
-
-        logInitialize();
-
-        logger.info("\n");
-
-        logger.info("-------------------------------------------------------------------------------");
-
-        logger.info(" TEST SUITE : " + testContext.getCurrentXmlTest().getSuite().getName());
-
-        logger.info("-------------------------------------------------------------------------------");
-
-    }
-
- 
-
-    public static void endTestSuite() {
-
-        logger.info("\n");
-
-        logger.info("-------------------------------- TEST SUITE END --------------------------------");
-
-    }
-
- 
-
-    public static void startTestCase(Method method) {
-
-        logger.info("\n");
-
-        logger.info("------------------------------------------------");
-
-        logger.info(" TEST CASE : " + method.getName());
-
-        logger.info("------------------------------------------------");
-
-    }
-
- 
-
-    public static void endTestCase() {
-
-        logger.info("\n");
-
-        logger.info("------------------------------------------------");
-
-    }
-
- 
-
-    public static void info(String message) {
-
-        logger.info("> INFO: " + message);
-
-    }
-
- 
-
-    public static void warn(String message) {
-
-        logger.warn("> WARN: " + message);
-
-    }
-
- 
-
-    public static void error(String message) {
-
-        logger.error("> ERROR: " + message);
-
-    }
-
- 
-
-    public static void fatal(String message) {
-
-        logger.fatal("> FATAL: " + message);
-
-    }
-
- 
-
-    public static void debug(String message) {
-
-        logger.debug("> DEBUG: " + message);
-
-    }
-
- 
-
-    public static void expected(String message) {
-
-        logger.info("> EXPECTED RESULT : " + message);
-
-    }
-
- 
-
-    public static void actual(String message) {
-
-        logger.info("> ACTUAL RESULT : " + message);
-
-    }
-
- 
-
+	public static Logger logger = LogManager.getLogger(Log.class.getName());
+
+	/**
+	 * This method applies the log4j2.xml found on the classpath again, or the
+	 * file named by the log4j2.configurationFile system property when set.
+	 */
+	public static void logInitialize() {
+		LoggerContext context = (LoggerContext) LogManager.getContext(false);
+		URL config = Log.class.getClassLoader().getResource("log4j2.xml");
+		if (System.getProperty("log4j2.configurationFile") != null || config == null) {
+			context.reconfigure();
+			return;
+		}
+		try {
+			context.setConfigLocation(config.toURI());
+		} catch (URISyntaxException e) {
+			context.reconfigure();
+		}
+	}
+
+	public static void startTestSuite(ITestContext testContext) {
+		logInitialize();
+		logger.info("\n");
+		logger.info("-------------------------------------------------------------------------------");
+		logger.info(" TEST SUITE : {}", testContext.getCurrentXmlTest().getSuite().getName());
+		logger.info("-------------------------------------------------------------------------------");
+	}
+
+	public static void endTestSuite() {
+		logger.info("\n");
+		logger.info("-------------------------------- TEST SUITE END --------------------------------");
+	}
+
+	public static void startTestCase(Method method) {
+		logger.info("\n");
+		logger.info("------------------------------------------------");
+		logger.info(" TEST CASE : {}", method.getName());
+		logger.info("------------------------------------------------");
+	}
+
+	public static void endTestCase() {
+		logger.info("\n");
+		logger.info("------------------------------------------------");
+	}
+
+	public static boolean isDebugEnabled() {
+		return logger.isDebugEnabled();
+	}
+
+	public static boolean isInfoEnabled() {
+		return logger.isInfoEnabled();
+	}
+
+	public static void info(String message) {
+		logger.info(message);
+	}
+
+	/**
+	 * @param format - message with a {} placeholder
+	 * @param arg    - replaces the placeholder
+	 */
+	public static void info(String format, Object arg) {
+		logger.info(format, arg);
+	}
+
+	public static void info(String format, Object arg1, Object arg2) {
+		logger.info(format, arg1, arg2);
+	}
+
+	public static void info(String format, Object... args) {
+		logger.info(format, args);
+	}
+
+	public static void warn(String message) {
+		logger.warn(message);
+	}
+
+	public static void warn(String format, Object arg) {
+		logger.warn(format, arg);
+	}
+
+	public static void warn(String format, Object arg1, Object arg2) {
+		logger.warn(format, arg1, arg2);
+	}
+
+	public static void warn(String format, Object... args) {
+		logger.warn(format, args);
+	}
+
+	public static void error(String message) {
+		logger.error(message);
+	}
+
+	public static void error(String format, Object arg) {
+		logger.error(format, arg);
+	}
+
+	public static void error(String format, Object arg1, Object arg2) {
+		logger.error(format, arg1, arg2);
+	}
+
+	public static void error(String format, Object... args) {
+		logger.error(format, args);
+	}
+
+	public static void fatal(String message) {
+		logger.fatal(message);
+	}
+
+	public static void debug(String message) {
+		logger.debug(message);
+	}
+
+	public static void debug(String format, Object arg) {
+		logger.debug(format, arg);
+	}
+
+	public static void debug(String format, Object arg1, Object arg2) {
+		logger.debug(format, arg1, arg2);
+	}
+
+	public static void debug(String format, Object... args) {
+		logger.debug(format, args);
+	}
+
+	public static void expected(String message) {
+		logger.info("EXPECTED RESULT : {}", message);
+	}
+
+	public static void actual(String message) {
+		logger.info("ACTUAL RESULT : {}", message);
+	}
 }
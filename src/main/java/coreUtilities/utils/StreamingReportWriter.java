@@ -0,0 +1,225 @@
+package coreUtilities.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import restConfig.ConfigManager;
+
+/**
+ * Writes an HTML report one row per finished test, as the tests finish.
+ *
+ * Rows go through a buffered writer that a background thread flushes every
+ * report.stream.flush.ms (default 1000), so the file can be opened while the
+ * suite runs and holds everything up to the last flush when the JVM dies.
+ * Browsers show the file without its closing tags, which are only written by
+ * {@link #close()}. Nothing is kept per test, so memory does not grow with
+ * the number of tests; set report.extent.enabled=false to drop the Extent
+ * report, which does keep every test, for long runs.
+ */
+public class StreamingReportWriter implements Closeable {
+
+	private static volatile StreamingReportWriter defaultWriter;
+
+	private final File file;
+	private final Writer writer;
+	private final ScheduledExecutorService flusher;
+	private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+	private long rows;
+	private long passed;
+	private long failed;
+	private long skipped;
+	private boolean dirty;
+	private boolean closed;
+
+	/**
+	 * Creates the file, replacing an earlier report, and starts the flusher.
+	 *
+	 * @param file        - the HTML file
+	 * @param flushMillis - time between flushes
+	 * @throws IOException when the file cannot be created
+	 */
+	public StreamingReportWriter(File file, long flushMillis) throws IOException {
+		this.file = file;
+		if (file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+		writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Test results</title><style>"
+				+ "body{font-family:sans-serif}table{border-collapse:collapse}td,th{border:1px solid #ccc;"
+				+ "padding:2px 6px;vertical-align:top}.PASSED{color:#080}.FAILED{color:#c00}.SKIPPED{color:#b80}"
+				+ "</style></head><body>\n<h1>Test results, started " + now() + "</h1>\n<table>\n"
+				+ "<tr><th>#</th><th>Test</th><th>Class</th><th>Status</th><th>Started</th><th>ms</th>"
+				+ "<th>Error</th></tr>\n");
+		writer.flush();
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "report-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return {@link StreamingReportWriter} - the writer for report.stream.file
+	 *         (default TestReport/test-results.html), created on first use and
+	 *         closed when the JVM exits, or null when the setting is empty or
+	 *         the file cannot be created
+	 */
+	public static StreamingReportWriter getDefault() {
+		StreamingReportWriter writer = defaultWriter;
+		if (writer == null) {
+			synchronized (StreamingReportWriter.class) {
+				writer = defaultWriter;
+				String path = ConfigManager.getProperty("report.stream.file", "TestReport/test-results.html").trim();
+				if (writer == null && !path.isEmpty()) {
+					try {
+						writer = new StreamingReportWriter(new File(path),
+								ConfigManager.getLong("report.stream.flush.ms", 1000));
+					} catch (IOException e) {
+						Log.warn("Test results are not streamed to {}: {}", path, e);
+						return null;
+					}
+					StreamingReportWriter created = writer;
+					Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+						try {
+							created.close();
+						} catch (IOException e) {
+							Log.warn("Could not close {}: {}", created.file, e);
+						}
+					}, "report-close"));
+					defaultWriter = writer;
+				}
+			}
+		}
+		return writer;
+	}
+
+	/**
+	 * This method appends one row; it is written to the file by the next
+	 * flush.
+	 *
+	 * @param name           - test method
+	 * @param className      - test class
+	 * @param status         - PASSED, FAILED or SKIPPED
+	 * @param startMillis    - start time in epoch milliseconds
+	 * @param durationMillis - run time
+	 * @param error          - why the test failed or was skipped, may be null
+	 */
+	public synchronized void testFinished(String name, String className, String status, long startMillis,
+			long durationMillis, Throwable error) {
+		if (closed) {
+			return;
+		}
+		rows++;
+		if ("PASSED".equals(status)) {
+			passed++;
+		} else if ("FAILED".equals(status)) {
+			failed++;
+		} else {
+			skipped++;
+		}
+		StringBuilder row = new StringBuilder(256);
+		row.append("<tr><td>").append(rows).append("</td><td>").append(escape(name)).append("</td><td>")
+				.append(escape(className)).append("</td><td class=\"").append(escape(status)).append("\">")
+				.append(escape(status)).append("</td><td>").append(timeFormat.format(new Date(startMillis)))
+				.append("</td><td>").append(durationMillis).append("</td><td>");
+		if (error != null) {
+			StringWriter trace = new StringWriter();
+			error.printStackTrace(new PrintWriter(trace));
+			row.append("<details><summary>").append(escape(String.valueOf(error))).append("</summary><pre>")
+					.append(escape(trace.toString())).append("</pre></details>");
+		}
+		row.append("</td></tr>\n");
+		try {
+			writer.write(row.toString());
+			dirty = true;
+		} catch (IOException e) {
+			Log.warn("Could not write to {}: {}", file, e);
+		}
+	}
+
+	/**
+	 * This method writes the buffered rows to the file now.
+	 */
+	public synchronized void flush() throws IOException {
+		if (!closed && dirty) {
+			writer.flush();
+			dirty = false;
+		}
+	}
+
+	/**
+	 * @return {@link File} - the report file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * This method closes the table with a summary row and the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		flusher.shutdownNow();
+		writer.write("</table>\n<p>" + rows + " tests: " + passed + " passed, " + failed + " failed, " + skipped
+				+ " skipped. Finished " + now() + "</p>\n</body></html>\n");
+		writer.close();
+		closed = true;
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (IOException e) {
+			Log.warn("Could not flush {}: {}", file, e);
+		}
+	}
+
+	private String now() {
+		return timeFormat.format(new Date());
+	}
+
+	private static String escape(String text) {
+		if (text == null) {
+			return "";
+		}
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '<':
+				escaped.append("&lt;");
+				break;
+			case '>':
+				escaped.append("&gt;");
+				break;
+			case '&':
+				escaped.append("&amp;");
+				break;
+			case '"':
+				escaped.append("&quot;");
+				break;
+			default:
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+}
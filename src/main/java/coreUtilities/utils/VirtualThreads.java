@@ -0,0 +1,49 @@
+package coreUtilities.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import restConfig.ConfigManager;
+
+/**
+ * Access to JDK 21 virtual threads from code that still compiles for Java 8.
+ *
+ * The virtual thread API is looked up reflectively, so the default build is
+ * unchanged and the virtual-threads Maven profile only has to run the suite on
+ * a JDK that provides it. The mode is switched on with
+ * -Dexecution.virtualThreads=true (or the same key in config.properties).
+ */
+public class VirtualThreads {
+
+	private static final ThreadFactory FACTORY = createFactory();
+
+	/**
+	 * @return {@link Boolean} - true when the virtual thread mode is switched on
+	 *         and the running JDK supports it
+	 */
+	public static boolean isEnabled() {
+		return FACTORY != null
+				&& Boolean.parseBoolean(ConfigManager.getProperty("execution.virtualThreads", "false").trim());
+	}
+
+	/**
+	 * @return {@link ThreadFactory} - a factory creating virtual threads, or null
+	 *         when the running JDK has no virtual threads
+	 */
+	public static ThreadFactory factory() {
+		return FACTORY;
+	}
+
+	// Thread.ofVirtual().name("virtual-", 0).factory()
+	private static ThreadFactory createFactory() {
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Method name = builderClass.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, "virtual-", 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+}
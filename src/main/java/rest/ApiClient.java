@@ -0,0 +1,278 @@
+package rest;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import coreUtilities.utils.JsonCodec;
+import coreUtilities.utils.VirtualThreads;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+
+/**
+ * Shared, thread-safe HTTP client layer used by {@link ApiUtil}.
+ *
+ * All requests go through one pooled keep-alive connection manager, so
+ * parallel test classes reuse open sockets (and TLS sessions) instead of
+ * paying for a new handshake on every call. Pool sizes and timeouts are read
+ * from config.properties:
+ *
+ * <pre>
+ * http.pool.maxTotal, http.pool.maxPerRoute, http.keepAlive.ms,
+ * http.connect.timeout.ms, http.socket.timeout.ms
+ * </pre>
+ *
+ * When http.maxConcurrentRequests is set, or the suite runs on virtual
+ * threads, a {@link RequestLimiter} caps the number of requests in flight
+ * across all threads, and with http.cache.enabled GET responses are served
+ * from a shared {@link ResponseCache}. Every request that reaches the server
+ * is timed into {@link RequestMetrics}. Pool sizes, timeouts and the request
+ * limit are applied again whenever {@link ConfigManager} reloads.
+ */
+public class ApiClient {
+
+	private static final int MAX_TOTAL = intProperty("http.pool.maxTotal", 50);
+	private static final int MAX_PER_ROUTE = intProperty("http.pool.maxPerRoute", 20);
+	private static final long KEEP_ALIVE_MS = intProperty("http.keepAlive.ms", 30000);
+	private static final int CONNECT_TIMEOUT_MS = intProperty("http.connect.timeout.ms", 10000);
+	private static final int SOCKET_TIMEOUT_MS = intProperty("http.socket.timeout.ms", 60000);
+	private static final int MAX_CONCURRENT_REQUESTS = intProperty("http.maxConcurrentRequests", 0);
+
+	// RestAssured's HttpClientConfig only takes an AbstractHttpClient, so the
+	// deprecated HttpClient 4.x API is the only one it can be given
+	@SuppressWarnings("deprecation")
+	private static final PoolingClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+	@SuppressWarnings("deprecation")
+	private static final AbstractHttpClient HTTP_CLIENT = createHttpClient();
+
+	// Request bodies and response.as(...) use the shared mapper; RestAssured's
+	// default factory builds and scans for modules a new mapper on every call
+	private static final RestAssuredConfig CONFIG = RestAssuredConfig.config()
+			.httpClient(HttpClientConfig.httpClientConfig().reuseHttpClientInstance()
+					.httpClientFactory(() -> HTTP_CLIENT))
+			.objectMapperConfig(ObjectMapperConfig.objectMapperConfig()
+					.jackson2ObjectMapperFactory((type, charset) -> JsonCodec.mapper()));
+
+	private static final RequestLimiter REQUEST_LIMITER = createRequestLimiter();
+
+	private static final ResponseCache RESPONSE_CACHE = createResponseCache();
+
+	private static final CoalescingFilter COALESCING_FILTER = createCoalescingFilter();
+
+	private static final TimingFilter TIMING_FILTER = new TimingFilter();
+
+	private static volatile BaseSpec baseSpec;
+
+	static {
+		startIdleConnectionEvictor();
+		ConfigManager.addListener(ApiClient::applyConfig);
+	}
+
+	/**
+	 * This method returns the prebuilt base {@link RequestSpecification} shared
+	 * by every ApiUtil method. It carries the pooled client configuration, the
+	 * Authorization header and the JSON content type. The spec is rebuilt only
+	 * when the Authorization header value changes.
+	 *
+	 * @return {@link RequestSpecification} - to be merged with
+	 *         RestAssured.given().spec(...)
+	 */
+	public static RequestSpecification getBaseSpec() {
+		String authHeader = AuthUtil.getAuthHeader();
+		BaseSpec current = baseSpec;
+		if (current == null || !current.authHeader.equals(authHeader)) {
+			RequestSpecBuilder builder = new RequestSpecBuilder().setConfig(CONFIG)
+					.addHeader("Authorization", authHeader).setContentType(ContentType.JSON);
+			if (RESPONSE_CACHE != null) {
+				builder.addFilter(RESPONSE_CACHE);
+			}
+			if (COALESCING_FILTER != null) {
+				builder.addFilter(COALESCING_FILTER);
+			}
+			if (REQUEST_LIMITER != null) {
+				builder.addFilter(REQUEST_LIMITER);
+			}
+			builder.addFilter(TIMING_FILTER);
+			current = new BaseSpec(authHeader, builder.build());
+			baseSpec = current;
+		}
+		return current.spec;
+	}
+
+	/**
+	 * @return {@link String} - the API base URL from config.properties
+	 *         (base.url)
+	 */
+	public static String getBaseUrl() {
+		return ConfigManager.getProperty("base.url", "https://healthapp.yaksha.com/api");
+	}
+
+	/**
+	 * @return {@link ResponseCache} - the shared GET response cache (hit and miss
+	 *         counters included), or null when http.cache.enabled is false
+	 */
+	public static ResponseCache getResponseCache() {
+		return RESPONSE_CACHE;
+	}
+
+	/**
+	 * @return {@link CoalescingFilter} - the filter sharing identical in-flight
+	 *         GETs, or null when http.coalesce.enabled is false
+	 */
+	public static CoalescingFilter getCoalescingFilter() {
+		return COALESCING_FILTER;
+	}
+
+	/**
+	 * @return {@link RestAssuredConfig} - the pooled client configuration, for
+	 *         callers that build their own spec
+	 */
+	public static RestAssuredConfig getConfig() {
+		return CONFIG;
+	}
+
+	@SuppressWarnings("deprecation") // the pool RestAssured's AbstractHttpClient needs
+	private static PoolingClientConnectionManager createConnectionManager() {
+		PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(
+				TimedConnections.schemeRegistry(), TimedConnections.dnsResolver());
+		connectionManager.setMaxTotal(MAX_TOTAL);
+		connectionManager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+		return connectionManager;
+	}
+
+	private static ResponseCache createResponseCache() {
+		if (!Boolean.parseBoolean(ConfigManager.getProperty("http.cache.enabled", "false").trim())) {
+			return null;
+		}
+		return new ResponseCache(intProperty("http.cache.maxEntries", 256), intProperty("http.cache.ttl.ms", 300000));
+	}
+
+	private static CoalescingFilter createCoalescingFilter() {
+		return isCoalescingEnabled() ? new CoalescingFilter() : null;
+	}
+
+	/**
+	 * @return {@link Boolean} - true when identical in-flight GETs share one
+	 *         request (http.coalesce.enabled)
+	 */
+	static boolean isCoalescingEnabled() {
+		return Boolean.parseBoolean(ConfigManager.getProperty("http.coalesce.enabled", "false").trim());
+	}
+
+	// On virtual threads a request must never wait inside the connection pool:
+	// the pool blocks while holding a monitor, which pins the carrier thread.
+	// The limiter is therefore always installed there and never hands out
+	// more permits than the pool has connections.
+	private static RequestLimiter createRequestLimiter() {
+		int limit = requestLimit(MAX_CONCURRENT_REQUESTS, MAX_PER_ROUTE);
+		return limit > 0 ? new RequestLimiter(limit) : null;
+	}
+
+	private static int requestLimit(int maxConcurrentRequests, int maxPerRoute) {
+		if (VirtualThreads.isEnabled()) {
+			return maxConcurrentRequests > 0 ? Math.min(maxConcurrentRequests, maxPerRoute) : maxPerRoute;
+		}
+		return maxConcurrentRequests;
+	}
+
+	// Pool sizes, timeouts and the request limit follow config reloads. The
+	// limiter itself is only installed at startup: a run started without one
+	// cannot be given one later.
+	@SuppressWarnings("deprecation") // HttpParams are how AbstractHttpClient takes timeouts
+	private static void applyConfig(ConfigSnapshot config) {
+		int maxPerRoute = config.getInt("http.pool.maxPerRoute", MAX_PER_ROUTE);
+		CONNECTION_MANAGER.setMaxTotal(config.getInt("http.pool.maxTotal", MAX_TOTAL));
+		CONNECTION_MANAGER.setDefaultMaxPerRoute(maxPerRoute);
+		HttpConnectionParams.setConnectionTimeout(HTTP_CLIENT.getParams(),
+				config.getInt("http.connect.timeout.ms", CONNECT_TIMEOUT_MS));
+		HttpConnectionParams.setSoTimeout(HTTP_CLIENT.getParams(),
+				config.getInt("http.socket.timeout.ms", SOCKET_TIMEOUT_MS));
+		int limit = requestLimit(config.getInt("http.maxConcurrentRequests", MAX_CONCURRENT_REQUESTS), maxPerRoute);
+		if (REQUEST_LIMITER != null && limit > 0) {
+			REQUEST_LIMITER.setLimit(limit);
+		}
+	}
+
+	@SuppressWarnings("deprecation") // RestAssured's HttpClientConfig requires an AbstractHttpClient
+	private static AbstractHttpClient createHttpClient() {
+		DefaultHttpClient client = new DefaultHttpClient(CONNECTION_MANAGER) {
+			@Override
+			protected HttpRequestExecutor createRequestExecutor() {
+				return TimedConnections.requestExecutor();
+			}
+		};
+		HttpConnectionParams.setConnectionTimeout(client.getParams(), CONNECT_TIMEOUT_MS);
+		HttpConnectionParams.setSoTimeout(client.getParams(), SOCKET_TIMEOUT_MS);
+		HttpConnectionParams.setTcpNoDelay(client.getParams(), true);
+		client.setKeepAliveStrategy(new KeepAliveStrategy());
+		return client;
+	}
+
+	// Closes expired and idle pooled connections so a stale socket is never
+	// handed to a request after the server has dropped it
+	private static void startIdleConnectionEvictor() {
+		ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "api-client-idle-evictor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		evictor.scheduleWithFixedDelay(() -> {
+			CONNECTION_MANAGER.closeExpiredConnections();
+			CONNECTION_MANAGER.closeIdleConnections(KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+		}, KEEP_ALIVE_MS, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+	}
+
+	static int intProperty(String key, int defaultValue) {
+		return Integer.parseInt(ConfigManager.getProperty(key, String.valueOf(defaultValue)).trim());
+	}
+
+	// Honours the server's "Keep-Alive: timeout=n" hint, otherwise keeps the
+	// connection for http.keepAlive.ms
+	private static class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+		@Override
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			HeaderElementIterator iterator = new BasicHeaderElementIterator(
+					response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+			while (iterator.hasNext()) {
+				HeaderElement element = iterator.nextElement();
+				if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+					try {
+						return Math.min(Long.parseLong(element.getValue()) * 1000, KEEP_ALIVE_MS);
+					} catch (NumberFormatException e) {
+						break;
+					}
+				}
+			}
+			return KEEP_ALIVE_MS;
+		}
+	}
+
+	private static class BaseSpec {
+		private final String authHeader;
+		private final RequestSpecification spec;
+
+		private BaseSpec(String authHeader, RequestSpecification spec) {
+			this.authHeader = authHeader;
+			this.spec = spec;
+		}
+	}
+}
@@ -1,8 +1,7 @@
 package rest;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
@@ -10,7 +9,41 @@ import io.restassured.specification.RequestSpecification;
 
 public class ApiUtil {
 
-	private static final String BASE_URL = "https://healthapp.yaksha.com/api";
+	private static final String BASE_URL = ApiClient.getBaseUrl();
+
+	// Endpoint definitions from endpoints.json; each one holds the precompiled
+	// extractor for its response body
+	private static final EndpointRegistry ENDPOINTS = EndpointRegistry.getDefault();
+	private static final EndpointDefinition ALL_STOCKS = ENDPOINTS.get("getAllStocks");
+	private static final EndpointDefinition MAIN_STORE = ENDPOINTS.get("getMainStore");
+	private static final EndpointDefinition REQUISITION_BY_DATE_RANGE = ENDPOINTS.get("getRequisitionByDateRange");
+	private static final EndpointDefinition PATIENT_CONSUMPTIONS = ENDPOINTS.get("getPatientConsumptions");
+	private static final EndpointDefinition PATIENT_CONSUMPTION_INFO_BY_PATIENT_ID_AND_VISIT_ID = ENDPOINTS
+			.get("getPatientConsumptionInfoByPatientIdAndVisitId");
+	private static final EndpointDefinition BILLING_SCHEME_BY_SCHEME_ID = ENDPOINTS.get("getBillingSchemeBySchemeId");
+	private static final EndpointDefinition BILLING_SUMMARY_BY_PATIENT_ID = ENDPOINTS
+			.get("getBillingSummaryByPatientId");
+	private static final EndpointDefinition CONSUMPTIONS_LIST_OF_A_PATIENT_BY_ID = ENDPOINTS
+			.get("getConsumptionsListOfAPatientById");
+	private static final EndpointDefinition RETURN_CONSUMPTIONS_LIST = ENDPOINTS.get("getReturnConsumptionsList");
+	private static final EndpointDefinition DISCHARGED_PATIENTS = ENDPOINTS.get("getDischargedPatients");
+	private static final EndpointDefinition ADMITTED_PATIENTS = ENDPOINTS.get("getAdmittedPatients");
+	private static final EndpointDefinition SEARCH_IPD_PATIENT_BY_PATIENT_ID = ENDPOINTS
+			.get("searchIpdPatientByPatientId");
+	private static final EndpointDefinition PATIENT_PROVISIONAL_INFO = ENDPOINTS.get("getPatientProvisionalInfo");
+	private static final EndpointDefinition PROVISIONAL_ITEMS_LIST_BY_PATIENT_ID_AND_SCHEME_ID = ENDPOINTS
+			.get("getProvisionalItemsListByPatientIdAndSchemeId");
+	private static final EndpointDefinition INVOICES_BY_DATE_RANGE = ENDPOINTS.get("getInvoicesByDateRange");
+	private static final EndpointDefinition PROVIDER_LIST = ENDPOINTS.get("getProviderList");
+	private static final EndpointDefinition USERS_LIST = ENDPOINTS.get("getUsersList");
+	private static final EndpointDefinition CURRENT_FISCAL_YEAR_DETAILS = ENDPOINTS.get("getCurrentFiscalYearDetails");
+
+	// The response is converted on a pool thread; its status is still recorded
+	// for the calling test thread, see CustomResponse.lastReceived()
+	private static CompletableFuture<CustomResponse> getAsync(EndpointDefinition definition, String url,
+			Object body) {
+		return CustomResponse.forCaller(AsyncApiClient.get(url, body).thenApplyAsync(definition::toCustomResponse));
+	}
 
 	/**
 	 * @Test1 This method retrieves and verifies the list of stocks.
@@ -22,8 +55,7 @@ public class ApiUtil {
 	 *         details such as ItemID, ItemName, SalePrice, and CostPrice.
 	 */
 	public CustomResponse getAllStocks(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		// Add body if it's not null
 		if (body != null) {
@@ -32,17 +64,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		// Extracting required data
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Directly extracting the lists of ItemId, ItemName, and GenericName
-		List<Object> itemIds = response.jsonPath().getList("Results.ItemId");
-		List<Object> itemNames = response.jsonPath().getList("Results.ItemName");
-		List<Object> genericNames = response.jsonPath().getList("Results.GenericName");
+		return ALL_STOCKS.toCustomResponse(response);
+	}
 
-		// Return a CustomResponse object
-		return new CustomResponse(response, statusCode, status, itemIds, itemNames, genericNames);
+	/**
+	 * Non-blocking variant of {@link #getAllStocks(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getAllStocksAsync(String endpoint, Object body) {
+		return getAsync(ALL_STOCKS, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -56,8 +90,7 @@ public class ApiUtil {
 	 *         IsActive.
 	 */
 	public CustomResponse getMainStore(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -65,15 +98,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Directly extracting the individual fields from "Results"
-		Object storeId = response.jsonPath().get("Results.StoreId");
-		Object category = response.jsonPath().get("Results.Category");
-		Object isActive = response.jsonPath().get("Results.IsActive");
+		return MAIN_STORE.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, storeId, category, isActive);
+	/**
+	 * Non-blocking variant of {@link #getMainStore(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getMainStoreAsync(String endpoint, Object body) {
+		return getAsync(MAIN_STORE, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -87,8 +124,7 @@ public class ApiUtil {
 	 *         RequisitionStatus.
 	 */
 	public CustomResponse getRequisitionByDateRange(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -96,18 +132,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		List<Map<String, Object>> requisitionList = response.jsonPath().getList("Results.requisitionList");
-		List<Object> requisitionNos = requisitionList.stream().map(req -> req.get("RequistionNo"))
-				.collect(Collectors.toList());
-		List<Object> requisitionStatuses = requisitionList.stream().map(req -> req.get("RequisitionStatus"))
-				.collect(Collectors.toList());
-		List<Object> requisitionIds = requisitionList.stream().map(req -> req.get("RequisitionId"))
-				.collect(Collectors.toList());
+		return REQUISITION_BY_DATE_RANGE.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, requisitionNos, requisitionStatuses, requisitionIds);
+	/**
+	 * Non-blocking variant of {@link #getRequisitionByDateRange(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getRequisitionByDateRangeAsync(String endpoint, Object body) {
+		return getAsync(REQUISITION_BY_DATE_RANGE, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -121,8 +158,7 @@ public class ApiUtil {
 	 *         PatientVisitId.
 	 */
 	public CustomResponse getPatientConsumptions(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -130,20 +166,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Directly extracting the fields PatientId, HospitalNo, and PatientVisitId
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> patientIds = results.stream().map(patient -> patient.get("PatientId"))
-				.collect(Collectors.toList());
-		List<Object> hospitalNos = results.stream().map(patient -> patient.get("HospitalNo"))
-				.collect(Collectors.toList());
-		List<Object> patientVisitIds = results.stream().map(patient -> patient.get("PatientVisitId"))
-				.collect(Collectors.toList());
+		return PATIENT_CONSUMPTIONS.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientIds, hospitalNos, patientVisitIds);
+	/**
+	 * Non-blocking variant of {@link #getPatientConsumptions(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getPatientConsumptionsAsync(String endpoint, Object body) {
+		return getAsync(PATIENT_CONSUMPTIONS, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -158,8 +193,7 @@ public class ApiUtil {
 	 *         and StoreId.
 	 */
 	public CustomResponse getPatientConsumptionInfoByPatientIdAndVisitId(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -167,18 +201,20 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extract PatientName, HospitalNo, and StoreId from the response
-		Map<String, Object> results = response.jsonPath().getMap("Results");
-		Map<String, Object> patientConsumption = (Map<String, Object>) results.get("PatientConsumption");
-
-		Object patientName = patientConsumption.get("PatientName");
-		Object hospitalNo = patientConsumption.get("HospitalNo");
-		Object storeId = patientConsumption.get("StoreId");
+		return PATIENT_CONSUMPTION_INFO_BY_PATIENT_ID_AND_VISIT_ID.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientName, hospitalNo, storeId);
+	/**
+	 * Non-blocking variant of {@link #getPatientConsumptionInfoByPatientIdAndVisitId(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getPatientConsumptionInfoByPatientIdAndVisitIdAsync(String endpoint,
+			Object body) {
+		return getAsync(PATIENT_CONSUMPTION_INFO_BY_PATIENT_ID_AND_VISIT_ID, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -190,8 +226,7 @@ public class ApiUtil {
 	 *         field, including SchemeCode, SchemeName, and SchemeId.
 	 */
 	public CustomResponse getBillingSchemeBySchemeId(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -199,17 +234,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Directly extracting the fields SchemeCode, SchemeName, and SchemeId
-		Map<String, Object> results = response.jsonPath().getMap("Results");
-
-		Object schemeCode = results.get("SchemeCode");
-		Object schemeName = results.get("SchemeName");
-		Object schemeId = results.get("SchemeId");
+		return BILLING_SCHEME_BY_SCHEME_ID.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, schemeCode, schemeName, schemeId);
+	/**
+	 * Non-blocking variant of {@link #getBillingSchemeBySchemeId(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getBillingSchemeBySchemeIdAsync(String endpoint, Object body) {
+		return getAsync(BILLING_SCHEME_BY_SCHEME_ID, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -221,8 +258,7 @@ public class ApiUtil {
 	 *         field, including PatientId, TotalDue, and other billing details.
 	 */
 	public CustomResponse getBillingSummaryByPatientId(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -230,15 +266,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields PatientId, TotalDue, and others from Results
-		Map<String, Object> results = response.jsonPath().getMap("Results");
-		Object patientId = results.get("PatientId");
-		Object totalDue = results.get("TotalDue");
+		return BILLING_SUMMARY_BY_PATIENT_ID.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientId, totalDue);
+	/**
+	 * Non-blocking variant of {@link #getBillingSummaryByPatientId(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getBillingSummaryByPatientIdAsync(String endpoint, Object body) {
+		return getAsync(BILLING_SUMMARY_BY_PATIENT_ID, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -252,8 +292,7 @@ public class ApiUtil {
 	 *         TotalAmount.
 	 */
 	public CustomResponse getConsumptionsListOfAPatientById(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -261,22 +300,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields PatientConsumptionId, ConsumptionReceiptNo, and
-		// TotalAmount
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> patientConsumptionIds = results.stream().map(result -> result.get("PatientConsumptionId"))
-				.collect(Collectors.toList());
-		List<Object> consumptionReceiptNos = results.stream().map(result -> result.get("ConsumptionReceiptNo"))
-				.collect(Collectors.toList());
-		List<Object> totalAmounts = results.stream().map(result -> result.get("TotalAmount"))
-				.collect(Collectors.toList());
+		return CONSUMPTIONS_LIST_OF_A_PATIENT_BY_ID.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientConsumptionIds, consumptionReceiptNos,
-				totalAmounts);
+	/**
+	 * Non-blocking variant of {@link #getConsumptionsListOfAPatientById(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getConsumptionsListOfAPatientByIdAsync(String endpoint, Object body) {
+		return getAsync(CONSUMPTIONS_LIST_OF_A_PATIENT_BY_ID, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -289,8 +325,7 @@ public class ApiUtil {
 	 *         PatientId.
 	 */
 	public CustomResponse getReturnConsumptionsList(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -298,19 +333,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields ConsumptionReturnReceiptNo, HospitalNo, and PatientId
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> consumptionReturnReceiptNos = results.stream()
-				.map(result -> result.get("ConsumptionReturnReceiptNo")).collect(Collectors.toList());
-		List<Object> hospitalNos = results.stream().map(result -> result.get("HospitalNo"))
-				.collect(Collectors.toList());
-		List<Object> patientIds = results.stream().map(result -> result.get("PatientId")).collect(Collectors.toList());
+		return RETURN_CONSUMPTIONS_LIST.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, consumptionReturnReceiptNos, hospitalNos, patientIds);
+	/**
+	 * Non-blocking variant of {@link #getReturnConsumptionsList(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getReturnConsumptionsListAsync(String endpoint, Object body) {
+		return getAsync(RETURN_CONSUMPTIONS_LIST, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -322,8 +357,7 @@ public class ApiUtil {
 	 *         field, including VisitCode, PatientVisitId, and PatientId.
 	 */
 	public CustomResponse getDischargedPatients(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -331,18 +365,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields VisitCode, PatientVisitId, and PatientId
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> visitCodes = results.stream().map(result -> result.get("VisitCode")).collect(Collectors.toList());
-		List<Object> patientVisitIds = results.stream().map(result -> result.get("PatientVisitId"))
-				.collect(Collectors.toList());
-		List<Object> patientIds = results.stream().map(result -> result.get("PatientId")).collect(Collectors.toList());
+		return DISCHARGED_PATIENTS.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, visitCodes, patientVisitIds, patientIds);
+	/**
+	 * Non-blocking variant of {@link #getDischargedPatients(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getDischargedPatientsAsync(String endpoint, Object body) {
+		return getAsync(DISCHARGED_PATIENTS, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -354,8 +389,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getAdmittedPatients(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -363,18 +397,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields PatientId, VisitId, and DischargeDate
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> patientIds = results.stream().map(result -> result.get("PatientId")).collect(Collectors.toList());
-		List<Object> visitIds = results.stream().map(result -> result.get("VisitId")).collect(Collectors.toList());
-		List<Object> dischargeDates = results.stream().map(result -> result.get("DischargeDate"))
-				.collect(Collectors.toList());
+		return ADMITTED_PATIENTS.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientIds, visitIds, dischargeDates);
+	/**
+	 * Non-blocking variant of {@link #getAdmittedPatients(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getAdmittedPatientsAsync(String endpoint, Object body) {
+		return getAsync(ADMITTED_PATIENTS, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -386,8 +421,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse searchIpdPatientByPatientId(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -395,17 +429,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields PatientId, PatientCode from Results
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> patientIds = results.stream().map(result -> result.get("PatientId")).collect(Collectors.toList());
-		List<Object> patientCodes = results.stream().map(result -> result.get("PatientCode"))
-				.collect(Collectors.toList());
+		return SEARCH_IPD_PATIENT_BY_PATIENT_ID.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientIds, patientCodes);
+	/**
+	 * Non-blocking variant of {@link #searchIpdPatientByPatientId(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> searchIpdPatientByPatientIdAsync(String endpoint, Object body) {
+		return getAsync(SEARCH_IPD_PATIENT_BY_PATIENT_ID, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -418,8 +454,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getPatientProvisionalInfo(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		if (body != null) {
 			request.body(body);
@@ -427,17 +462,19 @@ public class ApiUtil {
 
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields PatientId and PatientCode
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> patientIds = results.stream().map(result -> result.get("PatientId")).collect(Collectors.toList());
-		List<Object> patientCodes = results.stream().map(result -> result.get("PatientCode"))
-				.collect(Collectors.toList());
+		return PATIENT_PROVISIONAL_INFO.toCustomResponse(response);
+	}
 
-		return new CustomResponse(response, statusCode, status, patientIds, patientCodes);
+	/**
+	 * Non-blocking variant of {@link #getPatientProvisionalInfo(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getPatientProvisionalInfoAsync(String endpoint, Object body) {
+		return getAsync(PATIENT_PROVISIONAL_INFO, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -450,8 +487,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getProvisionalItemsListByPatientIdAndSchemeId(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		// Include body if it's not null
 		if (body != null) {
@@ -461,13 +497,20 @@ public class ApiUtil {
 		// Send GET request and extract response
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		// Extract response details
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-		List<Map<String, Object>> results = response.jsonPath().getList("Results.ProvisionalItems");
+		return PROVISIONAL_ITEMS_LIST_BY_PATIENT_ID_AND_SCHEME_ID.toCustomResponse(response);
+	}
 
-		// Return custom response
-		return new CustomResponse(response, statusCode, status, results);
+	/**
+	 * Non-blocking variant of {@link #getProvisionalItemsListByPatientIdAndSchemeId(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getProvisionalItemsListByPatientIdAndSchemeIdAsync(String endpoint,
+			Object body) {
+		return getAsync(PROVISIONAL_ITEMS_LIST_BY_PATIENT_ID_AND_SCHEME_ID, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -480,8 +523,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getInvoicesByDateRange(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		// Include body if it's not null
 		if (body != null) {
@@ -491,21 +533,19 @@ public class ApiUtil {
 		// Send GET request and extract response
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		System.out.println(response.prettyPrint());
-
-		// Extract response details
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		// Extract specific fields
-		List<Object> invoiceNumbers = results.stream().map(result -> result.get("InvoiceNumber"))
-				.collect(Collectors.toList());
-		List<Object> invoiceCodes = results.stream().map(result -> result.get("InvoiceCode"))
-				.collect(Collectors.toList());
+		return INVOICES_BY_DATE_RANGE.toCustomResponse(response);
+	}
 
-		// Return custom response with extracted fields
-		return new CustomResponse(response, statusCode, status, invoiceNumbers, invoiceCodes);
+	/**
+	 * Non-blocking variant of {@link #getInvoicesByDateRange(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getInvoicesByDateRangeAsync(String endpoint, Object body) {
+		return getAsync(INVOICES_BY_DATE_RANGE, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -517,8 +557,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getProviderList(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		// Include body if it's not null
 		if (body != null) {
@@ -528,20 +567,19 @@ public class ApiUtil {
 		// Send GET request and extract response
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		// Extract response details
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-
-		// Extracting the fields EmployeeId and EmployeeName from Results
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		List<Object> employeeIds = results.stream().map(result -> result.get("EmployeeId"))
-				.collect(Collectors.toList());
-		List<Object> employeeNames = results.stream().map(result -> result.get("EmployeeName"))
-				.collect(Collectors.toList());
+		return PROVIDER_LIST.toCustomResponse(response);
+	}
 
-		// Return custom response with extracted fields
-		return new CustomResponse(response, statusCode, status, employeeIds, employeeNames);
+	/**
+	 * Non-blocking variant of {@link #getProviderList(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getProviderListAsync(String endpoint, Object body) {
+		return getAsync(PROVIDER_LIST, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -553,8 +591,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getUsersList(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		// Include body if it's not null
 		if (body != null) {
@@ -564,19 +601,19 @@ public class ApiUtil {
 		// Send GET request and extract response
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		// Extract response details
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
-		List<Map<String, Object>> results = response.jsonPath().getList("Results");
-
-		// Extract specific fields
-		List<Object> userIds = results.stream().map(result -> result.get("UserId")).collect(Collectors.toList());
-		List<Object> shortNames = results.stream().map(result -> result.get("ShortName")).collect(Collectors.toList());
-		List<Object> departmentNames = results.stream().map(result -> result.get("DepartmentName"))
-				.collect(Collectors.toList());
+		return USERS_LIST.toCustomResponse(response);
+	}
 
-		// Return custom response with extracted fields
-		return new CustomResponse(response, statusCode, status, userIds, shortNames, departmentNames);
+	/**
+	 * Non-blocking variant of {@link #getUsersList(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getUsersListAsync(String endpoint, Object body) {
+		return getAsync(USERS_LIST, BASE_URL + endpoint, body);
 	}
 
 	/**
@@ -590,8 +627,7 @@ public class ApiUtil {
 	 *         list.
 	 */
 	public CustomResponse getCurrentFiscalYearDetails(String endpoint, Object body) {
-		RequestSpecification request = RestAssured.given().header("Authorization", AuthUtil.getAuthHeader())
-				.header("Content-Type", "application/json");
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
 
 		// Include body if it's not null
 		if (body != null) {
@@ -601,17 +637,46 @@ public class ApiUtil {
 		// Send GET request and extract response
 		Response response = request.get(BASE_URL + endpoint).then().extract().response();
 
-		// Extract response details
-		int statusCode = response.statusCode();
-		String status = response.jsonPath().getString("Status");
+		return CURRENT_FISCAL_YEAR_DETAILS.toCustomResponse(response);
+	}
 
-		// Extract the specific fields FiscalYearId and FiscalYearName
-		Map<String, Object> mapResults = response.jsonPath().getMap("Results");
-		Object fiscalYearId = mapResults.get("FiscalYearId");
-		Object fiscalYearName = mapResults.get("FiscalYearName");
+	/**
+	 * Non-blocking variant of {@link #getCurrentFiscalYearDetails(String, Object)}.
+	 * 
+	 * @param endpoint - The API endpoint to which the GET request is sent.
+	 * @param body     - Optional
+	 * @return CompletableFuture - Completes with the same CustomResponse the
+	 *         blocking method returns.
+	 */
+	public CompletableFuture<CustomResponse> getCurrentFiscalYearDetailsAsync(String endpoint, Object body) {
+		return getAsync(CURRENT_FISCAL_YEAR_DETAILS, BASE_URL + endpoint, body);
+	}
 
-		// Return custom response with extracted fields
-		return new CustomResponse(response, statusCode, status, fiscalYearId, fiscalYearName);
+	/**
+	 * Windowed variant of {@link #getRequisitionByDateRange(String, Object)} for
+	 * wide ranges, see {@link DateRangePager}.
+	 * 
+	 * @param dispensaryId - The dispensary whose requisitions are listed.
+	 * @param fromDate     - First day of the range, yyyy-MM-dd.
+	 * @param toDate       - Last day of the range, yyyy-MM-dd.
+	 * @return DateRangePager - Iterates the requisitions (RequistionNo,
+	 *         RequisitionStatus, RequisitionId) one window at a time.
+	 */
+	public DateRangePager pageRequisitionByDateRange(int dispensaryId, String fromDate, String toDate) {
+		return new DateRangePager(REQUISITION_BY_DATE_RANGE.getName(),
+				Collections.singletonMap("dispensaryId", dispensaryId), fromDate, toDate);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Windowed variant of {@link #getInvoicesByDateRange(String, Object)} for wide
+	 * ranges, see {@link DateRangePager}.
+	 * 
+	 * @param fromDate - First day of the range, yyyy-MM-dd.
+	 * @param toDate   - Last day of the range, yyyy-MM-dd.
+	 * @return DateRangePager - Iterates the invoices (InvoiceNumber,
+	 *         InvoiceCode) one window at a time.
+	 */
+	public DateRangePager pageInvoicesByDateRange(String fromDate, String toDate) {
+		return new DateRangePager(INVOICES_BY_DATE_RANGE.getName(), null, fromDate, toDate);
+	}
+}
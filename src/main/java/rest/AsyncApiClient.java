@@ -0,0 +1,376 @@
+package rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLSession;
+
+import org.asynchttpclient.AsyncCompletionHandlerBase;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.DefaultAsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.HttpResponseStatus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.channel.Channel;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import coreUtilities.utils.JsonCodec;
+import coreUtilities.utils.VirtualThreads;
+import restConfig.ConfigManager;
+
+/**
+ * Non-blocking HTTP client behind the ApiUtil ...Async methods and
+ * EndpointEngine.callAsync.
+ *
+ * Requests run on a Netty based {@link AsyncHttpClient} with its own
+ * keep-alive pool, so no caller thread waits on a socket. At most
+ * http.async.maxInFlight requests are on the wire at once; requests beyond
+ * that are queued and started as earlier ones complete, without any thread
+ * blocking on the limit.
+ *
+ * Responses are returned as RestAssured {@link Response}s so the same
+ * mapping code serves the blocking and the async variants. GETs without a
+ * body share the blocking path's {@link ResponseCache} when it is enabled,
+ * with http.coalesce.enabled identical GETs in flight at the same time share
+ * one request (see {@link CoalescingFilter}), and requests that reach the server are timed into
+ * {@link RequestMetrics}. Turning a reply into a Response (Brotli decoding
+ * included) runs on a converter pool, or on virtual threads when those are
+ * enabled, so a large body never holds up the Netty event loop that serves the
+ * other connections.
+ */
+public class AsyncApiClient {
+
+	private static final int MAX_IN_FLIGHT = ApiClient.intProperty("http.async.maxInFlight", 16);
+
+	private static final ObjectMapper MAPPER = JsonCodec.mapper();
+
+	private static final String ACCEPT_ENCODING = createAcceptEncoding();
+
+	private static final AsyncHttpClient HTTP_CLIENT = createHttpClient();
+
+	private static final Executor CONVERTER = createConverter();
+
+	private static final ResizableSemaphore IN_FLIGHT = new ResizableSemaphore(MAX_IN_FLIGHT, false);
+	private static final Queue<PendingRequest> PENDING = new ConcurrentLinkedQueue<>();
+
+	private static final SingleFlight<String, Response> FLIGHTS = ApiClient.isCoalescingEnabled()
+			? new SingleFlight<>()
+			: null;
+
+	static {
+		// http.async.maxInFlight can be retuned while running; a higher limit
+		// starts queued requests right away
+		ConfigManager.addListener(config -> {
+			IN_FLIGHT.resize(config.getInt("http.async.maxInFlight", MAX_IN_FLIGHT));
+			dispatch();
+		});
+	}
+
+	/**
+	 * This method queues a GET request and returns immediately.
+	 *
+	 * @param url  - absolute request URL
+	 * @param body - Optional; a String or byte[] is sent as is, anything else is
+	 *             serialized to JSON
+	 * @return {@link CompletableFuture} - completes with the response, or
+	 *         exceptionally when the request fails
+	 */
+	public static CompletableFuture<Response> get(String url, Object body) {
+		return request("GET", url, body);
+	}
+
+	/**
+	 * This method queues a request and returns immediately.
+	 *
+	 * @param method - HTTP method
+	 * @param url    - absolute request URL
+	 * @param body   - Optional; a String or byte[] is sent as is, anything else
+	 *               is serialized to JSON
+	 * @return {@link CompletableFuture} - completes with the response, or
+	 *         exceptionally when the request fails
+	 */
+	public static CompletableFuture<Response> request(String method, String url, Object body) {
+		if (body != null || !"GET".equalsIgnoreCase(method)) {
+			return enqueue(method, url, body, null);
+		}
+		String key = ResponseCache.key(url, AuthUtil.getAuthHeader());
+		ResponseCache cache = ApiClient.getResponseCache();
+		if (cache != null) {
+			Response cached = cache.getFresh(key);
+			if (cached != null) {
+				return CompletableFuture.completedFuture(cached);
+			}
+		}
+		if (FLIGHTS == null) {
+			return fetch(url, key, cache);
+		}
+		boolean[] started = new boolean[1];
+		CompletableFuture<Response> shared = FLIGHTS.execute(key, () -> {
+			started[0] = true;
+			return fetch(url, key, cache);
+		});
+		return started[0] ? shared : shared.thenApply(response -> new ResponseBuilder().clone(response).build());
+	}
+
+	/**
+	 * @return {@link SingleFlight} - the in-flight GETs shared between callers,
+	 *         or null when http.coalesce.enabled is false
+	 */
+	public static SingleFlight<String, Response> getFlights() {
+		return FLIGHTS;
+	}
+
+	private static CompletableFuture<Response> fetch(String url, String key, ResponseCache cache) {
+		if (cache == null) {
+			return enqueue("GET", url, null, null);
+		}
+		return enqueue("GET", url, null, cache.getValidators(key))
+				.thenApply(response -> cache.onResponse(key, response));
+	}
+
+	private static CompletableFuture<Response> enqueue(String method, String url, Object body,
+			Map<String, String> headers) {
+		PendingRequest request = new PendingRequest(method, url, body, headers);
+		PENDING.add(request);
+		dispatch();
+		return request.result;
+	}
+
+	private static AsyncHttpClient createHttpClient() {
+		int socketTimeout = ApiClient.intProperty("http.socket.timeout.ms", 60000);
+		return new DefaultAsyncHttpClient(new DefaultAsyncHttpClientConfig.Builder()
+				.setMaxConnections(ApiClient.intProperty("http.pool.maxTotal", 50))
+				.setMaxConnectionsPerHost(ApiClient.intProperty("http.pool.maxPerRoute", 20))
+				.setPooledConnectionIdleTimeout(ApiClient.intProperty("http.keepAlive.ms", 30000))
+				.setConnectTimeout(ApiClient.intProperty("http.connect.timeout.ms", 10000))
+				.setReadTimeout(socketTimeout).setRequestTimeout(socketTimeout).setKeepAlive(true)
+				.setCompressionEnforced(!ACCEPT_ENCODING.isEmpty()).setThreadFactory(new DaemonThreadFactory("async-api-client-")).build());
+	}
+
+	private static Executor createConverter() {
+		if (VirtualThreads.isEnabled()) {
+			return Executors.newCachedThreadPool(VirtualThreads.factory());
+		}
+		return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+				new DaemonThreadFactory("async-api-convert-"));
+	}
+
+	// The client drops a trailing ", br" from Accept-Encoding because it cannot
+	// decode Brotli itself; it is decoded here, so offer it first instead. The
+	// client filters every request's header that way, whether set by us or by
+	// compression enforcement and whatever setEnableAutomaticDecompression says,
+	// and switching decompression off would leave gzip and deflate to us too
+	private static String createAcceptEncoding() {
+		String acceptEncoding = ContentEncodings.acceptEncoding();
+		String trailingBrotli = ", " + ContentEncodings.BROTLI;
+		if (acceptEncoding.endsWith(trailingBrotli)) {
+			return ContentEncodings.BROTLI + ", "
+					+ acceptEncoding.substring(0, acceptEncoding.length() - trailingBrotli.length());
+		}
+		return acceptEncoding;
+	}
+
+	// Starts queued requests while permits are free. Every completion releases
+	// its permit and calls back in here, so queued work never waits on a thread.
+	private static void dispatch() {
+		while (!PENDING.isEmpty() && IN_FLIGHT.tryAcquire()) {
+			PendingRequest request = PENDING.poll();
+			if (request == null) {
+				IN_FLIGHT.release();
+			} else {
+				execute(request);
+			}
+		}
+	}
+
+	private static void execute(PendingRequest request) {
+		TimingHandler handler = new TimingHandler();
+		CompletableFuture<org.asynchttpclient.Response> call;
+		try {
+			BoundRequestBuilder builder = HTTP_CLIENT.prepare(request.method.toUpperCase(), request.url)
+					.setHeader("Authorization", AuthUtil.getAuthHeader())
+					.setHeader("Content-Type", "application/json; charset=UTF-8");
+			if (!ACCEPT_ENCODING.isEmpty()) {
+				builder.setHeader("Accept-Encoding", ACCEPT_ENCODING);
+			}
+			if (request.body != null) {
+				builder.setBody(toBytes(request.body));
+			}
+			if (request.headers != null) {
+				for (Map.Entry<String, String> header : request.headers.entrySet()) {
+					builder.setHeader(header.getKey(), header.getValue());
+				}
+			}
+			call = builder.execute(handler).toCompletableFuture();
+		} catch (RuntimeException | JsonProcessingException e) {
+			IN_FLIGHT.release();
+			request.result.completeExceptionally(e);
+			dispatch();
+			return;
+		}
+		// Frees the connection slot on the event loop; the reply is converted
+		// on the converter pool
+		call.whenComplete((response, failure) -> {
+			IN_FLIGHT.release();
+			dispatch();
+		});
+		call.whenCompleteAsync((response, failure) -> {
+			if (failure != null) {
+				RequestMetrics.record(request.method, request.url, handler.timing);
+				request.result.completeExceptionally(failure);
+				return;
+			}
+			try {
+				Response converted = toRestAssuredResponse(response);
+				handler.timing.finish(converted.asByteArray().length);
+				RequestMetrics.record(request.method, request.url, handler.timing);
+				request.result.complete(converted);
+			} catch (IOException | RuntimeException e) {
+				RequestMetrics.record(request.method, request.url, handler.timing);
+				request.result.completeExceptionally(e);
+			}
+		}, CONVERTER);
+	}
+
+	private static byte[] toBytes(Object body) throws JsonProcessingException {
+		if (body instanceof byte[]) {
+			return (byte[]) body;
+		}
+		if (body instanceof String) {
+			return ((String) body).getBytes(StandardCharsets.UTF_8);
+		}
+		return MAPPER.writeValueAsBytes(body);
+	}
+
+	// gzip and deflate bodies arrive decoded by the client, Brotli is decoded here
+	private static Response toRestAssuredResponse(org.asynchttpclient.Response response) throws IOException {
+		String contentEncoding = response.getHeader("Content-Encoding");
+		boolean decode = ContentEncodings.needsDecoding(contentEncoding);
+		List<Header> headers = new ArrayList<>();
+		for (Map.Entry<String, String> header : response.getHeaders()) {
+			if (!decode || !(header.getKey().equalsIgnoreCase("Content-Encoding")
+					|| header.getKey().equalsIgnoreCase("Content-Length"))) {
+				headers.add(new Header(header.getKey(), header.getValue()));
+			}
+		}
+		byte[] body = response.getResponseBodyAsBytes();
+		if (decode) {
+			body = readFully(ContentEncodings.decode(contentEncoding, new ByteArrayInputStream(body)));
+		}
+		ResponseBuilder builder = new ResponseBuilder().setStatusCode(response.getStatusCode())
+				.setStatusLine("HTTP/1.1 " + response.getStatusCode() + " " + response.getStatusText())
+				.setHeaders(new Headers(headers)).setBody(body);
+		if (response.getContentType() != null) {
+			builder.setContentType(response.getContentType());
+		}
+		return builder.build();
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		try (InputStream stream = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = stream.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private static class PendingRequest {
+		private final String method;
+		private final String url;
+		private final Object body;
+		private final Map<String, String> headers;
+		private final CompletableFuture<Response> result = new CompletableFuture<>();
+
+		private PendingRequest(String method, String url, Object body, Map<String, String> headers) {
+			this.method = method;
+			this.url = url;
+			this.body = body;
+			this.headers = headers;
+		}
+	}
+
+	// Reports the connection phases of one request. The events arrive on
+	// Netty threads, so the timing travels with the handler, not the thread.
+	private static class TimingHandler extends AsyncCompletionHandlerBase {
+		private final RequestTiming timing = new RequestTiming();
+		private volatile long phaseStart;
+
+		@Override
+		public void onHostnameResolutionAttempt(String name) {
+			phaseStart = System.nanoTime();
+		}
+
+		@Override
+		public void onHostnameResolutionSuccess(String name, List<InetSocketAddress> addresses) {
+			timing.addDns(System.nanoTime() - phaseStart);
+		}
+
+		@Override
+		public void onTcpConnectAttempt(InetSocketAddress remoteAddress) {
+			phaseStart = System.nanoTime();
+		}
+
+		@Override
+		public void onTcpConnectSuccess(InetSocketAddress remoteAddress, Channel connection) {
+			timing.addConnect(System.nanoTime() - phaseStart);
+		}
+
+		@Override
+		public void onTlsHandshakeAttempt() {
+			phaseStart = System.nanoTime();
+		}
+
+		@Override
+		public void onTlsHandshakeSuccess(SSLSession sslSession) {
+			timing.addTls(System.nanoTime() - phaseStart);
+		}
+
+		@Override
+		public State onStatusReceived(HttpResponseStatus status) throws Exception {
+			timing.firstByte();
+			return super.onStatusReceived(status);
+		}
+	}
+
+	// Netty event loop, timer and converter threads must not keep the test JVM
+	// alive
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final String prefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		private DaemonThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
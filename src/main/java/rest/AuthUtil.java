@@ -1,17 +1,16 @@
 package rest;
 
-import restConfig.ConfigManager;
-
 public class AuthUtil {
 
-	// Method to get Bearer Token from config file
+	// Method to get Bearer Token, kept fresh by the TokenManager
 	public static String getBearerToken() {
-		return ConfigManager.getProperty("auth.bearer.token"); // Fetch from config
+		return TokenManager.getDefault().getToken();
 	}
 
-	// Method to set Authorization header
+	// Method to get Authorization header; the header String is built once per
+	// token, not per request
 	public static String getAuthHeader() {
-		return "Bearer " + getBearerToken();
+		return TokenManager.getDefault().getAuthHeader();
 	}
 
 }
@@ -0,0 +1,194 @@
+package rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * The raw bytes of a response body, kept as received.
+ *
+ * Bodies up to response.spill.thresholdBytes (default 1 MiB) stay in the
+ * array the HTTP client produced; larger ones are written to a temp file and
+ * read back through a read-only memory mapping, so they live in the page cache
+ * instead of the heap. Nothing is decoded into a String until
+ * {@link #asString(Charset)} or {@link #toPrettyString(Charset)} is called.
+ */
+class BodyBuffer {
+
+	private static final long SPILL_THRESHOLD = Long
+			.parseLong(ConfigManager.getProperty("response.spill.thresholdBytes", "1048576"));
+
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private final byte[] bytes;
+	private final ByteBuffer mapped;
+
+	private BodyBuffer(byte[] bytes, ByteBuffer mapped) {
+		this.bytes = bytes;
+		this.mapped = mapped;
+	}
+
+	/**
+	 * @param body - the body as read by the HTTP client, not copied when it
+	 *             stays on the heap
+	 * @return {@link BodyBuffer} - a heap or memory mapped buffer, depending on
+	 *         the size of the body
+	 */
+	static BodyBuffer of(byte[] body) {
+		if (body == null) {
+			return new BodyBuffer(new byte[0], null);
+		}
+		if (SPILL_THRESHOLD <= 0 || body.length <= SPILL_THRESHOLD) {
+			return new BodyBuffer(body, null);
+		}
+		try {
+			return new BodyBuffer(null, spill(body));
+		} catch (IOException e) {
+			Log.warn("Could not spill a {} byte response body to disk, keeping it on the heap: {}", body.length, e);
+			return new BodyBuffer(body, null);
+		}
+	}
+
+	int size() {
+		return bytes != null ? bytes.length : mapped.capacity();
+	}
+
+	boolean isMapped() {
+		return mapped != null;
+	}
+
+	/**
+	 * @return {@link InputStream} - a fresh stream over the whole body
+	 */
+	InputStream openStream() {
+		if (bytes != null) {
+			return new ByteArrayInputStream(bytes);
+		}
+		ByteBuffer buffer = mapped.duplicate();
+		return new InputStream() {
+			@Override
+			public int read() {
+				return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] target, int offset, int length) {
+				if (!buffer.hasRemaining()) {
+					return -1;
+				}
+				int count = Math.min(length, buffer.remaining());
+				buffer.get(target, offset, count);
+				return count;
+			}
+
+			@Override
+			public int available() {
+				return buffer.remaining();
+			}
+		};
+	}
+
+	/**
+	 * @return {@link byte[]} - the body; the array held by a heap buffer is
+	 *         returned as is and must not be modified, a mapped body is copied
+	 *         onto the heap
+	 */
+	byte[] toByteArray() {
+		if (bytes != null) {
+			return bytes;
+		}
+		byte[] copy = new byte[mapped.capacity()];
+		mapped.duplicate().get(copy);
+		return copy;
+	}
+
+	/**
+	 * @param charset - charset of the body
+	 * @return {@link String} - the body as text
+	 */
+	String asString(Charset charset) {
+		if (bytes != null) {
+			return new String(bytes, charset);
+		}
+		return charset.decode(mapped.duplicate()).toString();
+	}
+
+	/**
+	 * This method indents a JSON body token by token, without building a tree
+	 * of it. Bodies that are not JSON come back as plain text.
+	 *
+	 * @param charset - charset of the body
+	 * @return {@link String} - the indented body
+	 */
+	String toPrettyString(Charset charset) {
+		StringWriter pretty = new StringWriter(size() + size() / 4);
+		try (JsonParser parser = JSON.createParser(openStream());
+				JsonGenerator generator = JSON.createGenerator(pretty)) {
+			generator.useDefaultPrettyPrinter();
+			if (parser.nextToken() == null) {
+				return asString(charset);
+			}
+			generator.copyCurrentStructure(parser);
+			if (parser.nextToken() != null) {
+				return asString(charset);
+			}
+		} catch (JsonProcessingException e) {
+			return asString(charset);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return pretty.toString();
+	}
+
+	static Charset charsetOf(String contentType) {
+		if (contentType != null) {
+			for (String parameter : contentType.split(";")) {
+				String[] pair = parameter.trim().split("=", 2);
+				if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+					try {
+						return Charset.forName(pair[1].trim().replace("\"", ""));
+					} catch (IllegalArgumentException e) {
+						break;
+					}
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	// The mapping outlives the file, so it is deleted right away where the
+	// platform allows it and on exit otherwise
+	private static ByteBuffer spill(byte[] body) throws IOException {
+		Path file = Files.createTempFile("api-response-", ".body");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer source = ByteBuffer.wrap(body);
+			while (source.hasRemaining()) {
+				channel.write(source);
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, body.length);
+		} finally {
+			try {
+				Files.delete(file);
+			} catch (IOException e) {
+				file.toFile().deleteOnExit();
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package rest;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * RestAssured filter sharing one request between identical blocking GETs that
+ * are in flight at the same time, installed on the ApiUtil base spec when
+ * http.coalesce.enabled is true (default false).
+ *
+ * Requests are identical when they have the same URL and Authorization header
+ * (the {@link ResponseCache} key) and no body. The first caller goes to the
+ * server; callers arriving before it has its answer wait for it and each get
+ * their own copy of the response, so none of them holds a permit of the
+ * {@link RequestLimiter} or shows up in {@link RequestMetrics} for a request
+ * that was never sent.
+ */
+public class CoalescingFilter implements OrderedFilter {
+
+	private final SingleFlight<String, Response> flights = new SingleFlight<>();
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		if (!"GET".equalsIgnoreCase(requestSpec.getMethod()) || requestSpec.getBody() != null) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+		String key = ResponseCache.key(requestSpec.getURI(), requestSpec.getHeaders().getValue("Authorization"));
+		Response[] own = new Response[1];
+		Response shared = flights.call(key, () -> {
+			Response response = ctx.next(requestSpec, responseSpec);
+			// Read the body on this thread, before waiting callers copy it
+			response.asByteArray();
+			own[0] = response;
+			return response;
+		});
+		return own[0] != null ? own[0] : new ResponseBuilder().clone(shared).build();
+	}
+
+	// Inside the response cache, so hits are never coalesced, and outside the
+	// request limiter, so waiting callers do not take a permit
+	@Override
+	public int getOrder() {
+		return HIGHEST_PRECEDENCE + 1;
+	}
+
+	/**
+	 * @return {@link SingleFlight} - the in-flight requests and their counters
+	 */
+	public SingleFlight<String, Response> getFlights() {
+		return flights;
+	}
+}
@@ -0,0 +1,78 @@
+package rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.brotli.dec.BrotliInputStream;
+
+import restConfig.ConfigManager;
+
+/**
+ * Response compression offered to the server by both HTTP clients.
+ *
+ * http.compression lists the encodings to accept, in order of preference
+ * (default br,gzip,deflate); an empty value asks for uncompressed responses.
+ * gzip and deflate are decoded by the clients themselves, br by
+ * {@link #decode(String, InputStream)}, and br is only offered when the
+ * Brotli decoder is on the classpath. The blocking client decodes while the
+ * body streams in, so the compressed body is never held in memory next to
+ * the decoded one.
+ */
+class ContentEncodings {
+
+	static final String BROTLI = "br";
+
+	private static final String ACCEPT_ENCODING = createAcceptEncoding();
+
+	/**
+	 * @return {@link String} - the Accept-Encoding header value, empty when
+	 *         compression is switched off
+	 */
+	static String acceptEncoding() {
+		return ACCEPT_ENCODING;
+	}
+
+	/**
+	 * @param contentEncoding - Content-Encoding of a response, may be null
+	 * @return {@link Boolean} - true when {@link #decode(String, InputStream)}
+	 *         has to decode the body
+	 */
+	static boolean needsDecoding(String contentEncoding) {
+		return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(BROTLI);
+	}
+
+	/**
+	 * @param contentEncoding - Content-Encoding of the response
+	 * @param body            - the encoded body
+	 * @return {@link InputStream} - the decoded body, read as it streams in
+	 */
+	static InputStream decode(String contentEncoding, InputStream body) throws IOException {
+		if (needsDecoding(contentEncoding)) {
+			return new BrotliInputStream(body);
+		}
+		return body;
+	}
+
+	private static String createAcceptEncoding() {
+		List<String> accepted = new ArrayList<>();
+		for (String encoding : ConfigManager.getProperty("http.compression", "br,gzip,deflate").split(",")) {
+			encoding = encoding.trim().toLowerCase();
+			if (encoding.isEmpty() || (encoding.equals(BROTLI) && !brotliAvailable())) {
+				continue;
+			}
+			accepted.add(encoding);
+		}
+		return String.join(", ", accepted);
+	}
+
+	private static boolean brotliAvailable() {
+		try {
+			Class.forName("org.brotli.dec.BrotliInputStream", false, ContentEncodings.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
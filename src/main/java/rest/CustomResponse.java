@@ -1,211 +1,351 @@
-package rest;
-
-import java.util.List;
-import java.util.Map;
-
-import io.restassured.response.Response;
-
-public class CustomResponse {
-	private Response response;
-	private int statusCode;
-	private String status;
-	private Integer appointmentId;
-	private List<Map<String, Object>> listResults;
-	private String resultMessage;
-	private Map<String, Object> mapResults;
-	private List<Object> itemIds;
-	private List<Object> itemNames;
-	private List<Object> genericNames;
-	private Object storeId;
-	private Object category;
-	private Object isActive;
-	private Object patientId;
-	private Object totalDue;
-	private List<Object> patientIds;
-	private List<Object> patientCodes;
-
-	public CustomResponse(Response response, int statusCode, String status, Integer appointmentId) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.appointmentId = appointmentId;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, Map<String, Object> mapResults) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.mapResults = mapResults;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, String resultMessage) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.resultMessage = resultMessage;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, List<Map<String, Object>> listResults) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.listResults = listResults;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, List<Object> patientIds,
-			List<Object> patientCodes) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.patientIds = patientIds;
-		this.patientCodes = patientCodes;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, List<Object> itemIds,
-			List<Object> itemNames, List<Object> genericNames) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.itemIds = itemIds;
-		this.itemNames = itemNames;
-		this.genericNames = genericNames;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, Object storeId, Object category,
-			Object isActive) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.storeId = storeId;
-		this.category = category;
-		this.isActive = isActive;
-	}
-
-	public CustomResponse(Response response, int statusCode, String status, Object patientId, Object totalDue) {
-		this.response = response;
-		this.statusCode = statusCode;
-		this.status = status;
-		this.patientId = patientId;
-		this.totalDue = totalDue;
-	}
-
-	public Response getResponse() {
-		return response;
-	}
-
-	public int getStatusCode() {
-		return statusCode;
-	}
-
-	public String getStatus() {
-		return status;
-	}
-
-	public Integer getAppointmentId() {
-		return appointmentId;
-	}
-
-	public String getResultMessage() {
-		return resultMessage;
-	}
-
-	public void setResultMessage(String resultMessage) {
-		this.resultMessage = resultMessage;
-	}
-
-	public List<Map<String, Object>> getListResults() {
-		return listResults;
-	}
-
-	public void setListResults(List<Map<String, Object>> listResults) {
-		this.listResults = listResults;
-	}
-
-	public Map<String, Object> getMapResults() {
-		return mapResults;
-	}
-
-	public void setMapResults(Map<String, Object> mapResults) {
-		this.mapResults = mapResults;
-	}
-
-	public List<Object> getItemIds() {
-		return itemIds;
-	}
-
-	public void setItemIds(List<Object> itemIds) {
-		this.itemIds = itemIds;
-	}
-
-	public List<Object> getItemNames() {
-		return itemNames;
-	}
-
-	public void setItemNames(List<Object> itemNames) {
-		this.itemNames = itemNames;
-	}
-
-	public List<Object> getGenericNames() {
-		return genericNames;
-	}
-
-	public void setGenericNames(List<Object> genericNames) {
-		this.genericNames = genericNames;
-	}
-
-	public Object getStoreId() {
-		return storeId;
-	}
-
-	public void setStoreId(Object storeId) {
-		this.storeId = storeId;
-	}
-
-	public Object getCategory() {
-		return category;
-	}
-
-	public void setCategory(Object category) {
-		this.category = category;
-	}
-
-	public Object getIsActive() {
-		return isActive;
-	}
-
-	public void setIsActive(Object isActive) {
-		this.isActive = isActive;
-	}
-
-	public Object getPatientId() {
-		return patientId;
-	}
-
-	public void setPatientId(Object patientId) {
-		this.patientId = patientId;
-	}
-
-	public Object getTotalDue() {
-		return totalDue;
-	}
-
-	public void setTotalDue(Object totalDue) {
-		this.totalDue = totalDue;
-	}
-
-	public List<Object> getPatientIds() {
-		return patientIds;
-	}
-
-	public void setPatientIds(List<Object> patientIds) {
-		this.patientIds = patientIds;
-	}
-
-	public List<Object> getPatientCodes() {
-		return patientCodes;
-	}
-
-	public void setPatientCodes(List<Object> patientCodes) {
-		this.patientCodes = patientCodes;
-	}
-}
+package rest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.restassured.response.Response;
+
+public class CustomResponse {
+	private static final ThreadLocal<Holder> LAST_RECEIVED = ThreadLocal.withInitial(Holder::new);
+
+	private Response response;
+	private int statusCode;
+	private String status;
+	private Integer appointmentId;
+	private List<Map<String, Object>> listResults;
+	private String resultMessage;
+	private Map<String, Object> mapResults;
+	private List<Object> itemIds;
+	private List<Object> itemNames;
+	private List<Object> genericNames;
+	private Object storeId;
+	private Object category;
+	private Object isActive;
+	private Object patientId;
+	private Object totalDue;
+	private List<Object> patientIds;
+	private List<Object> patientCodes;
+	private ResultTable resultTable;
+
+	public CustomResponse(Response response, int statusCode, String status, Integer appointmentId) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.appointmentId = appointmentId;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, Map<String, Object> mapResults) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.mapResults = mapResults;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, String resultMessage) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.resultMessage = resultMessage;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, List<Map<String, Object>> listResults) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.listResults = listResults;
+	}
+
+	/**
+	 * Columnar variant of the list constructors. The list getters are served as
+	 * read-only views over the table: getListResults() returns its rows, and its
+	 * columns map by position the same way the List constructors do (two columns
+	 * to patientIds and patientCodes, three to itemIds, itemNames and
+	 * genericNames).
+	 *
+	 * @param response    - the raw response
+	 * @param statusCode  - HTTP status code
+	 * @param status      - the "Status" field of the body
+	 * @param resultTable - the extracted results
+	 */
+	public CustomResponse(Response response, int statusCode, String status, ResultTable resultTable) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.resultTable = resultTable;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, List<Object> patientIds,
+			List<Object> patientCodes) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.patientIds = patientIds;
+		this.patientCodes = patientCodes;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, List<Object> itemIds,
+			List<Object> itemNames, List<Object> genericNames) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.itemIds = itemIds;
+		this.itemNames = itemNames;
+		this.genericNames = genericNames;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, Object storeId, Object category,
+			Object isActive) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.storeId = storeId;
+		this.category = category;
+		this.isActive = isActive;
+	}
+
+	public CustomResponse(Response response, int statusCode, String status, Object patientId, Object totalDue) {
+		this.response = received(response);
+		this.statusCode = statusCode;
+		this.status = status;
+		this.patientId = patientId;
+		this.totalDue = totalDue;
+	}
+
+	/**
+	 * @return {@link Response} - the raw response. Its body is held as received
+	 *         (memory mapped when large) and only turned into text on demand;
+	 *         print() and prettyPrint() follow response.print, see
+	 *         {@link ResponseLog}.
+	 */
+	public Response getResponse() {
+		ResponseLog.seen(response);
+		return response;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * @return {@link Received} - status of the last response wrapped in a
+	 *         CustomResponse on the calling thread, or received by an async
+	 *         call the thread started, or null when there was none
+	 */
+	public static Received lastReceived() {
+		return LAST_RECEIVED.get().received;
+	}
+
+	/**
+	 * Async calls build their CustomResponse on a pool thread; this records its
+	 * status for the thread starting the call instead, so RetryAnalyzer sees a
+	 * 429 or 503 of an async call as well.
+	 *
+	 * @param call - the call, completing with the converted response
+	 * @return {@link CompletableFuture} - the same outcome, recorded for the
+	 *         thread calling this method
+	 */
+	static CompletableFuture<CustomResponse> forCaller(CompletableFuture<CustomResponse> call) {
+		Holder caller = LAST_RECEIVED.get();
+		return call.thenApply(converted -> {
+			caller.received = Received.of(converted.response);
+			return converted;
+		});
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public Integer getAppointmentId() {
+		return appointmentId;
+	}
+
+	public String getResultMessage() {
+		return resultMessage;
+	}
+
+	public void setResultMessage(String resultMessage) {
+		this.resultMessage = resultMessage;
+	}
+
+	public List<Map<String, Object>> getListResults() {
+		if (listResults == null && resultTable != null) {
+			listResults = resultTable.asMaps();
+		}
+		return listResults;
+	}
+
+	public void setListResults(List<Map<String, Object>> listResults) {
+		this.listResults = listResults;
+	}
+
+	public Map<String, Object> getMapResults() {
+		return mapResults;
+	}
+
+	public void setMapResults(Map<String, Object> mapResults) {
+		this.mapResults = mapResults;
+	}
+
+	public List<Object> getItemIds() {
+		if (itemIds == null && resultTable != null) {
+			itemIds = column(0, 3);
+		}
+		return itemIds;
+	}
+
+	public void setItemIds(List<Object> itemIds) {
+		this.itemIds = itemIds;
+	}
+
+	public List<Object> getItemNames() {
+		if (itemNames == null && resultTable != null) {
+			itemNames = column(1, 3);
+		}
+		return itemNames;
+	}
+
+	public void setItemNames(List<Object> itemNames) {
+		this.itemNames = itemNames;
+	}
+
+	public List<Object> getGenericNames() {
+		if (genericNames == null && resultTable != null) {
+			genericNames = column(2, 3);
+		}
+		return genericNames;
+	}
+
+	public void setGenericNames(List<Object> genericNames) {
+		this.genericNames = genericNames;
+	}
+
+	public Object getStoreId() {
+		return storeId;
+	}
+
+	public void setStoreId(Object storeId) {
+		this.storeId = storeId;
+	}
+
+	public Object getCategory() {
+		return category;
+	}
+
+	public void setCategory(Object category) {
+		this.category = category;
+	}
+
+	public Object getIsActive() {
+		return isActive;
+	}
+
+	public void setIsActive(Object isActive) {
+		this.isActive = isActive;
+	}
+
+	public Object getPatientId() {
+		return patientId;
+	}
+
+	public void setPatientId(Object patientId) {
+		this.patientId = patientId;
+	}
+
+	public Object getTotalDue() {
+		return totalDue;
+	}
+
+	public void setTotalDue(Object totalDue) {
+		this.totalDue = totalDue;
+	}
+
+	public List<Object> getPatientIds() {
+		if (patientIds == null && resultTable != null) {
+			patientIds = column(0, 2);
+		}
+		return patientIds;
+	}
+
+	public void setPatientIds(List<Object> patientIds) {
+		this.patientIds = patientIds;
+	}
+
+	public List<Object> getPatientCodes() {
+		if (patientCodes == null && resultTable != null) {
+			patientCodes = column(1, 2);
+		}
+		return patientCodes;
+	}
+
+	public void setPatientCodes(List<Object> patientCodes) {
+		this.patientCodes = patientCodes;
+	}
+
+	public ResultTable getResultTable() {
+		return resultTable;
+	}
+
+	public void setResultTable(ResultTable resultTable) {
+		this.resultTable = resultTable;
+	}
+
+	// Only the status and Retry-After are kept per thread, so a large body is
+	// not held on to after the test
+	private static Response received(Response response) {
+		Response lazy = LazyResponse.wrap(response);
+		ResponseLog.seen(lazy);
+		LAST_RECEIVED.get().received = Received.of(lazy);
+		return lazy;
+	}
+
+	// Column view at the given position when the table has the given number of
+	// columns, mirroring the positional List constructors
+	private List<Object> column(int position, int columnCount) {
+		return resultTable.getColumnCount() == columnCount ? resultTable.getColumn(position).asList() : null;
+	}
+
+	// Written by the pool thread of an async call, read by the test thread
+	private static class Holder {
+		private volatile Received received;
+	}
+
+	/**
+	 * What a thread last received, for deciding whether a failed test ran into
+	 * a server error rather than wrong data.
+	 */
+	public static class Received {
+		private final int statusCode;
+		private final String retryAfter;
+		private final long receivedAt = System.currentTimeMillis();
+
+		private Received(int statusCode, String retryAfter) {
+			this.statusCode = statusCode;
+			this.retryAfter = retryAfter;
+		}
+
+		private static Received of(Response response) {
+			return new Received(response.getStatusCode(), response.getHeader("Retry-After"));
+		}
+
+		public int getStatusCode() {
+			return statusCode;
+		}
+
+		/**
+		 * @return {@link String} - the Retry-After header, or null
+		 */
+		public String getRetryAfter() {
+			return retryAfter;
+		}
+
+		/**
+		 * @return {@link Long} - when the response was wrapped, in epoch
+		 *         milliseconds
+		 */
+		public long getReceivedAt() {
+			return receivedAt;
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package rest;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import restConfig.ConfigManager;
+
+/**
+ * Walks the rows of a date range endpoint window by window.
+ *
+ * The range is split into consecutive windows of pager.windowDays days (default
+ * 30); each window is a separate request with its own fromDate and toDate,
+ * both inclusive. Up to pager.prefetch windows (default 3) are requested ahead
+ * on {@link AsyncApiClient} while the caller works through the current one,
+ * and a window is dropped as soon as its last row has been handed out, so only
+ * the prefetched windows are ever held in memory, never the whole range.
+ *
+ * <pre>
+ * for (ResultTable.Row row : new ApiUtil().pageInvoicesByDateRange("2020-01-01", "2024-11-19")) {
+ * 	Assert.assertNotNull(row.get("InvoiceNumber"));
+ * }
+ * </pre>
+ *
+ * A window answered with anything but 200 and Status OK ends the iteration
+ * with an IllegalStateException naming the window.
+ */
+public class DateRangePager implements Iterable<ResultTable.Row> {
+
+	private static final int DEFAULT_WINDOW_DAYS = Integer
+			.parseInt(ConfigManager.getProperty("pager.windowDays", "30"));
+	private static final int DEFAULT_PREFETCH = Integer.parseInt(ConfigManager.getProperty("pager.prefetch", "3"));
+
+	private final EndpointEngine engine;
+	private final String endpoint;
+	private final Map<String, ?> parameters;
+	private final LocalDate from;
+	private final LocalDate to;
+	private final int windowDays;
+	private final int prefetch;
+
+	/**
+	 * Pages with the pager.windowDays and pager.prefetch settings.
+	 *
+	 * @param endpoint   - name of a registered endpoint whose path has
+	 *                   {fromDate} and {toDate} placeholders
+	 * @param parameters - values for its other placeholders, may be null
+	 * @param fromDate   - first day of the range, yyyy-MM-dd
+	 * @param toDate     - last day of the range, yyyy-MM-dd
+	 */
+	public DateRangePager(String endpoint, Map<String, ?> parameters, String fromDate, String toDate) {
+		this(new EndpointEngine(), endpoint, parameters, LocalDate.parse(fromDate), LocalDate.parse(toDate),
+				DEFAULT_WINDOW_DAYS, DEFAULT_PREFETCH);
+	}
+
+	/**
+	 * @param engine     - engine the windows are requested through
+	 * @param endpoint   - name of a registered endpoint whose path has
+	 *                   {fromDate} and {toDate} placeholders
+	 * @param parameters - values for its other placeholders, may be null
+	 * @param from       - first day of the range
+	 * @param to         - last day of the range
+	 * @param windowDays - days per request
+	 * @param prefetch   - windows requested ahead of the one being read
+	 */
+	public DateRangePager(EndpointEngine engine, String endpoint, Map<String, ?> parameters, LocalDate from,
+			LocalDate to, int windowDays, int prefetch) {
+		if (windowDays < 1 || prefetch < 1) {
+			throw new IllegalArgumentException("windowDays and prefetch must be at least 1");
+		}
+		if (to.isBefore(from)) {
+			throw new IllegalArgumentException("The range " + from + ".." + to + " ends before it starts");
+		}
+		if (!engine.getRegistry().get(endpoint).getParameters().containsAll(Arrays.asList("fromDate", "toDate"))) {
+			throw new IllegalArgumentException("Endpoint " + endpoint + " has no {fromDate} and {toDate} to page by");
+		}
+		this.engine = engine;
+		this.endpoint = endpoint;
+		this.parameters = parameters == null ? Collections.emptyMap() : parameters;
+		this.from = from;
+		this.to = to;
+		this.windowDays = windowDays;
+		this.prefetch = prefetch;
+	}
+
+	/**
+	 * @return {@link Integer} - number of requests the range is split into
+	 */
+	public int getWindowCount() {
+		return (int) ((to.toEpochDay() - from.toEpochDay()) / windowDays + 1);
+	}
+
+	/**
+	 * Every call starts a new pass over the range and requests it again.
+	 */
+	@Override
+	public Iterator<ResultTable.Row> iterator() {
+		return new RowIterator();
+	}
+
+	private class RowIterator implements Iterator<ResultTable.Row> {
+		private final Deque<Window> pending = new ArrayDeque<>();
+		private LocalDate nextStart = from;
+		private ResultTable current;
+		private int row;
+
+		private RowIterator() {
+			fill();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (current == null || row >= current.getRowCount()) {
+				current = null;
+				if (pending.isEmpty()) {
+					return false;
+				}
+				current = pending.removeFirst().await();
+				row = 0;
+				fill();
+			}
+			return true;
+		}
+
+		@Override
+		public ResultTable.Row next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return current.getRow(row++);
+		}
+
+		private void fill() {
+			while (pending.size() < prefetch && !nextStart.isAfter(to)) {
+				LocalDate end = nextStart.plusDays(windowDays - 1L);
+				if (end.isAfter(to)) {
+					end = to;
+				}
+				pending.addLast(new Window(nextStart, end));
+				nextStart = end.plusDays(1);
+			}
+		}
+	}
+
+	private class Window {
+		private final LocalDate start;
+		private final LocalDate end;
+		private final CompletableFuture<CustomResponse> response;
+
+		private Window(LocalDate start, LocalDate end) {
+			this.start = start;
+			this.end = end;
+			Map<String, Object> values = new HashMap<>(parameters);
+			values.put("fromDate", start.toString());
+			values.put("toDate", end.toString());
+			this.response = engine.callAsync(endpoint, values, null);
+		}
+
+		private ResultTable await() {
+			CustomResponse window;
+			try {
+				window = response.join();
+			} catch (CompletionException e) {
+				throw new IllegalStateException(describe() + " failed: " + e.getCause(), e.getCause());
+			}
+			if (window.getStatusCode() != 200 || !"OK".equals(window.getStatus())) {
+				throw new IllegalStateException(describe() + " returned " + window.getStatusCode() + " with Status "
+						+ window.getStatus());
+			}
+			ResultTable table = window.getResultTable();
+			if (table == null) {
+				throw new IllegalStateException(endpoint + " does not return a list of rows");
+			}
+			return table;
+		}
+
+		private String describe() {
+			return endpoint + " for " + start + ".." + end;
+		}
+	}
+}
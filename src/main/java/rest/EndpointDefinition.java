@@ -0,0 +1,273 @@
+package rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import coreUtilities.utils.Log;
+import io.restassured.response.Response;
+
+/**
+ * One endpoint of the {@link EndpointRegistry}: how to call it and what to
+ * read from its response.
+ *
+ * A definition is compiled once when the registry is loaded: the path
+ * template is split into literal and placeholder parts and the fields are
+ * turned into a {@link JsonFieldExtractor}, so calling the endpoint only
+ * fills in the placeholders and runs the extractor.
+ *
+ * The "results" shape decides how the fields end up in the
+ * {@link CustomResponse}:
+ *
+ * <pre>
+ * columns - each field is a list, returned together as a ResultTable
+ * table   - the single field names an array of objects, returned as a ResultTable
+ * values  - each field is a single value; two or three of them fill the
+ *           positional getters (getStoreId/getCategory/getIsActive and
+ *           getPatientId/getTotalDue), any other number a one-row ResultTable
+ * </pre>
+ *
+ * Field types (string, int, long, double, number, boolean, any) are applied
+ * to single values. A value that does not fit its type is handed on as the
+ * parser read it, as the JsonPath lookups did, so the test's assertion reports
+ * the mismatch rather than the call failing. List fields keep the unboxed
+ * storage the extractor chose for them, see {@link ResultColumn}.
+ */
+public class EndpointDefinition {
+
+	private static final String STATUS_FIELD = "Status";
+
+	private final String name;
+	private final String method;
+	private final String path;
+	private final Shape shape;
+	private final Map<String, FieldType> fields = new LinkedHashMap<>();
+	private final String[] fieldPaths;
+	private final FieldType[] fieldTypes;
+	private final List<String> templateParts = new ArrayList<>();
+	private final JsonFieldExtractor extractor;
+
+	EndpointDefinition(String name, JsonNode definition) {
+		this.name = name;
+		this.method = definition.path("method").asText("GET").toUpperCase();
+		this.path = required(name, definition, "path").asText();
+		this.shape = Shape.parse(name, definition.path("results").asText("columns"));
+		Iterator<Map.Entry<String, JsonNode>> declared = required(name, definition, "fields").fields();
+		while (declared.hasNext()) {
+			Map.Entry<String, JsonNode> field = declared.next();
+			fields.put(field.getKey(), FieldType.parse(name, field.getValue().asText("any")));
+		}
+		if (fields.isEmpty() || (shape == Shape.TABLE && fields.size() != 1)) {
+			throw new IllegalArgumentException("Endpoint " + name + ": a " + shape.name().toLowerCase()
+					+ " result needs " + (shape == Shape.TABLE ? "exactly one field" : "at least one field"));
+		}
+		compileTemplate();
+		this.fieldPaths = fields.keySet().toArray(new String[0]);
+		this.fieldTypes = fields.values().toArray(new FieldType[0]);
+		List<String> paths = new ArrayList<>();
+		paths.add(STATUS_FIELD);
+		paths.addAll(fields.keySet());
+		this.extractor = new JsonFieldExtractor(paths.toArray(new String[0]));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return {@link String} - the path template, e.g.
+	 *         /PharmacySales/PatientBillingSummary?patientId={patientId}
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return {@link List} - the dot separated paths of the extracted fields
+	 */
+	public List<String> getFields() {
+		return Collections.unmodifiableList(Arrays.asList(fieldPaths));
+	}
+
+	/**
+	 * @return {@link List} - placeholder names of the path template, in order
+	 */
+	public List<String> getParameters() {
+		List<String> parameters = new ArrayList<>();
+		for (int i = 1; i < templateParts.size(); i += 2) {
+			parameters.add(templateParts.get(i));
+		}
+		return parameters;
+	}
+
+	/**
+	 * This method fills in the path template. Values are inserted as given; the
+	 * HTTP clients encode the resulting URL.
+	 *
+	 * @param parameters - a value for every placeholder
+	 * @return {@link String} - the endpoint path relative to base.url
+	 */
+	public String expand(Map<String, ?> parameters) {
+		StringBuilder expanded = new StringBuilder(path.length() + 32);
+		for (int i = 0; i < templateParts.size(); i++) {
+			String part = templateParts.get(i);
+			if (i % 2 == 0) {
+				expanded.append(part);
+			} else {
+				Object value = parameters == null ? null : parameters.get(part);
+				if (value == null) {
+					throw new IllegalArgumentException("Endpoint " + name + " needs a value for {" + part + "}");
+				}
+				expanded.append(value);
+			}
+		}
+		return expanded.toString();
+	}
+
+	/**
+	 * This method reads the declared fields from a response of this endpoint.
+	 *
+	 * @param response - the response received from the server
+	 * @return {@link CustomResponse} - status code, Status and the fields in the
+	 *         declared shape
+	 */
+	public CustomResponse toCustomResponse(Response response) {
+		int statusCode = response.statusCode();
+		JsonFields extracted = extractor.extract(response.asByteArray());
+		String status = extracted.getString(STATUS_FIELD);
+		switch (shape) {
+		case TABLE:
+			return new CustomResponse(response, statusCode, status, extracted.getTable(fieldPaths[0]));
+		case VALUES:
+			Object[] values = new Object[fieldPaths.length];
+			for (int i = 0; i < fieldPaths.length; i++) {
+				values[i] = fieldTypes[i].convert(name, fieldPaths[i], extracted.get(fieldPaths[i]));
+			}
+			if (values.length == 3) {
+				return new CustomResponse(response, statusCode, status, values[0], values[1], values[2]);
+			}
+			if (values.length == 2) {
+				return new CustomResponse(response, statusCode, status, values[0], values[1]);
+			}
+			return new CustomResponse(response, statusCode, status, singleRow(fieldPaths, values));
+		default:
+			return new CustomResponse(response, statusCode, status, extracted.getColumns(fieldPaths));
+		}
+	}
+
+	private static ResultTable singleRow(String[] paths, Object[] values) {
+		ResultTable table = new ResultTable();
+		for (int i = 0; i < paths.length; i++) {
+			table.column(paths[i].substring(paths[i].lastIndexOf('.') + 1)).append(values[i]);
+		}
+		table.endRow();
+		table.seal();
+		return table;
+	}
+
+	// Alternating literal and placeholder parts, starting with a literal
+	private void compileTemplate() {
+		int position = 0;
+		while (true) {
+			int open = path.indexOf('{', position);
+			if (open < 0) {
+				break;
+			}
+			int close = path.indexOf('}', open);
+			if (close < 0) {
+				throw new IllegalArgumentException("Endpoint " + name + ": unclosed { in " + path);
+			}
+			templateParts.add(path.substring(position, open));
+			templateParts.add(path.substring(open + 1, close).trim());
+			position = close + 1;
+		}
+		templateParts.add(path.substring(position));
+	}
+
+	private static JsonNode required(String endpoint, JsonNode definition, String key) {
+		JsonNode value = definition.get(key);
+		if (value == null || value.isNull()) {
+			throw new IllegalArgumentException("Endpoint " + endpoint + " is missing \"" + key + "\"");
+		}
+		return value;
+	}
+
+	private enum Shape {
+		COLUMNS, TABLE, VALUES;
+
+		private static Shape parse(String endpoint, String value) {
+			try {
+				return valueOf(value.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Endpoint " + endpoint + ": unknown results shape " + value, e);
+			}
+		}
+	}
+
+	private enum FieldType {
+		STRING, INT, LONG, DOUBLE, NUMBER, BOOLEAN, ANY;
+
+		private static FieldType parse(String endpoint, String value) {
+			try {
+				return valueOf(value.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Endpoint " + endpoint + ": unknown field type " + value, e);
+			}
+		}
+
+		private Object convert(String endpoint, String field, Object value) {
+			if (value == null || this == ANY) {
+				return value;
+			}
+			try {
+				switch (this) {
+				case STRING:
+					return value instanceof String ? value : String.valueOf(value);
+				case INT:
+					return value instanceof Number ? Integer.valueOf(Math.toIntExact(integral((Number) value)))
+							: Integer.valueOf(value.toString().trim());
+				case LONG:
+					return value instanceof Number ? Long.valueOf(integral((Number) value))
+							: Long.valueOf(value.toString().trim());
+				case DOUBLE:
+					return value instanceof Number ? Double.valueOf(((Number) value).doubleValue())
+							: Double.valueOf(value.toString().trim());
+				case NUMBER:
+					return value instanceof Number ? value : Double.valueOf(value.toString().trim());
+				case BOOLEAN:
+					if (value instanceof Boolean) {
+						return value;
+					}
+					String text = value.toString().trim();
+					if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+						return Boolean.valueOf(text);
+					}
+					throw new IllegalArgumentException(text);
+				default:
+					return value;
+				}
+			} catch (ArithmeticException | IllegalArgumentException e) {
+				Log.debug("Endpoint {}: {} is not {}, kept as read: {}", endpoint, field, name().toLowerCase(), value);
+				return value;
+			}
+		}
+
+		private static long integral(Number value) {
+			double asDouble = value.doubleValue();
+			if (!(value instanceof Double || value instanceof Float) || asDouble == Math.rint(asDouble)) {
+				return value.longValue();
+			}
+			throw new ArithmeticException("not a whole number");
+		}
+	}
+}
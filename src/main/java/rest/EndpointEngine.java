@@ -0,0 +1,98 @@
+package rest;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Calls any endpoint of an {@link EndpointRegistry} by name.
+ *
+ * Every endpoint goes through the same code path as the {@link ApiUtil}
+ * methods: the shared base spec on the pooled client (with the response
+ * cache, request limiter and timing filters it carries) for blocking calls,
+ * {@link AsyncApiClient} for non-blocking ones, and the definition's
+ * precompiled extractor for the response. A new endpoint therefore only
+ * needs an entry in endpoints.json.
+ *
+ * With http.coalesce.enabled identical GETs in flight at the same time share
+ * one request, through the {@link CoalescingFilter} of the base spec or the
+ * async client; every caller still builds its own {@link CustomResponse} from
+ * its own copy of the response, so its status is recorded for its thread.
+ *
+ * <pre>
+ * CustomResponse summary = new EndpointEngine().call("getBillingSummaryByPatientId",
+ * 		Collections.singletonMap("patientId", 114), null);
+ * </pre>
+ */
+public class EndpointEngine {
+
+	private static final String BASE_URL = ApiClient.getBaseUrl();
+
+	private final EndpointRegistry registry;
+
+	/**
+	 * Uses the default registry, see {@link EndpointRegistry#getDefault()}.
+	 */
+	public EndpointEngine() {
+		this(EndpointRegistry.getDefault());
+	}
+
+	/**
+	 * @param registry - endpoint definitions to call
+	 */
+	public EndpointEngine(EndpointRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * This method calls a registered endpoint and waits for the response.
+	 *
+	 * @param name       - endpoint name in the registry
+	 * @param parameters - values for the placeholders of the path template,
+	 *                   may be null when it has none
+	 * @param body       - Optional
+	 * @return {@link CustomResponse} - status code, Status and the declared
+	 *         fields
+	 */
+	public CustomResponse call(String name, Map<String, ?> parameters, Object body) {
+		EndpointDefinition endpoint = registry.get(name);
+		String url = BASE_URL + endpoint.expand(parameters);
+		return send(endpoint, url, body);
+	}
+
+	/**
+	 * Non-blocking variant of {@link #call(String, Map, Object)}.
+	 *
+	 * @param name       - endpoint name in the registry
+	 * @param parameters - values for the placeholders of the path template,
+	 *                   may be null when it has none
+	 * @param body       - Optional
+	 * @return {@link CompletableFuture} - completes with the same CustomResponse
+	 *         the blocking method returns
+	 */
+	public CompletableFuture<CustomResponse> callAsync(String name, Map<String, ?> parameters, Object body) {
+		EndpointDefinition endpoint = registry.get(name);
+		String url = BASE_URL + endpoint.expand(parameters);
+		return CustomResponse.forCaller(
+				AsyncApiClient.request(endpoint.getMethod(), url, body).thenApplyAsync(endpoint::toCustomResponse));
+	}
+
+	/**
+	 * @return {@link EndpointRegistry} - the definitions this engine calls
+	 */
+	public EndpointRegistry getRegistry() {
+		return registry;
+	}
+
+	private static CustomResponse send(EndpointDefinition endpoint, String url, Object body) {
+		RequestSpecification request = RestAssured.given().spec(ApiClient.getBaseSpec());
+		if (body != null) {
+			request.body(body);
+		}
+		Response response = request.request(endpoint.getMethod(), url).then().extract().response();
+		return endpoint.toCustomResponse(response);
+	}
+}
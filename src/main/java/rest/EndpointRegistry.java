@@ -0,0 +1,121 @@
+package rest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import coreUtilities.utils.JsonCodec;
+import restConfig.ConfigManager;
+
+/**
+ * Declarative endpoint definitions, read from a JSON file of the form
+ *
+ * <pre>
+ * {
+ *   "getBillingSummaryByPatientId": {
+ *     "method": "GET",
+ *     "path": "/PharmacySales/PatientBillingSummary?patientId={patientId}",
+ *     "results": "values",
+ *     "fields": { "Results.PatientId": "int", "Results.TotalDue": "number" }
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@link EndpointDefinition} for the meaning of each key. The default
+ * registry is the file named by endpoints.registry
+ * (src/main/resources/endpoints.json), or the endpoints.json classpath
+ * resource when that file does not exist. Definitions are compiled once, when
+ * the registry is loaded.
+ */
+public class EndpointRegistry {
+
+	private static final ObjectMapper MAPPER = JsonCodec.mapper();
+
+	private static volatile EndpointRegistry defaultRegistry;
+
+	private final Map<String, EndpointDefinition> endpoints;
+
+	private EndpointRegistry(Map<String, EndpointDefinition> endpoints) {
+		this.endpoints = Collections.unmodifiableMap(endpoints);
+	}
+
+	/**
+	 * @return {@link EndpointRegistry} - the registry from endpoints.registry,
+	 *         loaded on first use
+	 */
+	public static EndpointRegistry getDefault() {
+		EndpointRegistry registry = defaultRegistry;
+		if (registry == null) {
+			synchronized (EndpointRegistry.class) {
+				registry = defaultRegistry;
+				if (registry == null) {
+					registry = loadDefault();
+					defaultRegistry = registry;
+				}
+			}
+		}
+		return registry;
+	}
+
+	/**
+	 * @param json - a registry document
+	 * @return {@link EndpointRegistry} - the compiled definitions
+	 * @throws IllegalArgumentException when a definition is invalid
+	 */
+	public static EndpointRegistry load(InputStream json) throws IOException {
+		JsonNode root = MAPPER.readTree(json);
+		if (root == null || !root.isObject()) {
+			throw new IllegalArgumentException("An endpoint registry must be a JSON object of definitions");
+		}
+		Map<String, EndpointDefinition> endpoints = new LinkedHashMap<>();
+		Iterator<Map.Entry<String, JsonNode>> definitions = root.fields();
+		while (definitions.hasNext()) {
+			Map.Entry<String, JsonNode> definition = definitions.next();
+			endpoints.put(definition.getKey(), new EndpointDefinition(definition.getKey(), definition.getValue()));
+		}
+		return new EndpointRegistry(endpoints);
+	}
+
+	/**
+	 * @param name - endpoint name, e.g. getMainStore
+	 * @return {@link EndpointDefinition} - the definition
+	 * @throws IllegalArgumentException when no endpoint has that name
+	 */
+	public EndpointDefinition get(String name) {
+		EndpointDefinition endpoint = endpoints.get(name);
+		if (endpoint == null) {
+			throw new IllegalArgumentException("No endpoint named " + name + " in the registry");
+		}
+		return endpoint;
+	}
+
+	/**
+	 * @return {@link Set} - names of all registered endpoints, in file order
+	 */
+	public Set<String> getNames() {
+		return endpoints.keySet();
+	}
+
+	private static EndpointRegistry loadDefault() {
+		File file = new File(ConfigManager.getProperty("endpoints.registry", "src/main/resources/endpoints.json"));
+		try (InputStream json = file.isFile() ? new FileInputStream(file)
+				: EndpointRegistry.class.getClassLoader().getResourceAsStream("endpoints.json")) {
+			if (json == null) {
+				throw new IllegalStateException("No endpoint registry at " + file + " or on the classpath");
+			}
+			return load(json);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read the endpoint registry", e);
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import coreUtilities.utils.JsonCodec;
+
+/**
+ * Single-pass field extractor for JSON response bodies.
+ *
+ * The extractor is built once from a set of dot separated paths (the same
+ * notation used with response.jsonPath(), e.g. "Status", "Results.ItemId",
+ * "Results.requisitionList.RequisitionId") and then walks each body once with
+ * Jackson's streaming {@link JsonParser}. Sub-trees that no path points into
+ * are skipped without being materialised.
+ *
+ * Like GPath, a path that crosses an array yields a list with one entry per
+ * array element (null where the element has no such field). Nested arrays
+ * are flattened into that one list. Such values are appended straight into a
+ * primitive backed {@link ResultColumn}, and a path that names an array of
+ * objects is streamed into a {@link ResultTable}, so neither allocates a box
+ * or a map per element.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public class JsonFieldExtractor {
+
+	private static final ObjectMapper MAPPER = JsonCodec.mapper();
+
+	private final Node root = new Node(null, null);
+
+	/**
+	 * @param paths - dot separated field paths to extract from each body
+	 */
+	public JsonFieldExtractor(String... paths) {
+		for (String path : paths) {
+			Node node = root;
+			for (String name : path.split("\\.")) {
+				node = node.child(name);
+			}
+			node.terminal = true;
+		}
+	}
+
+	/**
+	 * This method extracts all the configured paths from the given body in one
+	 * pass.
+	 *
+	 * @param body - raw JSON body
+	 * @return {@link JsonFields} - the extracted values keyed by path
+	 */
+	public JsonFields extract(byte[] body) {
+		if (body == null || body.length == 0) {
+			return new JsonFields();
+		}
+		try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+			return extract(parser);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to parse JSON response body", e);
+		}
+	}
+
+	/**
+	 * This method extracts all the configured paths from the given stream in one
+	 * pass. The stream is read to the end of the first JSON value but not
+	 * closed.
+	 *
+	 * @param body - JSON body stream
+	 * @return {@link JsonFields} - the extracted values keyed by path
+	 */
+	public JsonFields extract(InputStream body) {
+		try {
+			JsonParser parser = MAPPER.getFactory().createParser(body);
+			parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+			try {
+				return extract(parser);
+			} finally {
+				parser.close();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to parse JSON response body", e);
+		}
+	}
+
+	private JsonFields extract(JsonParser parser) throws IOException {
+		JsonFields fields = new JsonFields();
+		if (parser.nextToken() != null) {
+			read(parser, root, false, fields);
+		}
+		fields.seal();
+		return fields;
+	}
+
+	// Reads the value the parser is positioned on for the given path node
+	private void read(JsonParser parser, Node node, boolean inArray, JsonFields fields) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (node.terminal && inArray && token.isScalarValue()) {
+			append(parser, token, fields.column(node.path));
+		} else if (node.terminal && !inArray && token == JsonToken.START_ARRAY && node.children.isEmpty()) {
+			readElements(parser, node, fields);
+		} else if (node.terminal) {
+			Object value = token.isScalarValue() ? scalar(parser, token) : MAPPER.readValue(parser, Object.class);
+			store(node, value, inArray, fields);
+			if (!node.children.isEmpty()) {
+				evaluateChildren(value, node, inArray, fields);
+			}
+		} else if (token == JsonToken.START_ARRAY) {
+			node.ensureLists(fields);
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				read(parser, node, true, fields);
+			}
+		} else if (token == JsonToken.START_OBJECT) {
+			boolean[] seen = inArray ? new boolean[node.children.size()] : null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				Node child = node.children.get(parser.getCurrentName());
+				parser.nextToken();
+				if (child == null) {
+					parser.skipChildren();
+				} else {
+					read(parser, child, inArray, fields);
+					if (seen != null) {
+						seen[child.index] = true;
+					}
+				}
+			}
+			if (seen != null) {
+				for (Node child : node.children.values()) {
+					if (!seen[child.index]) {
+						child.appendMissing(fields);
+					}
+				}
+			}
+		} else if (inArray) {
+			for (Node child : node.children.values()) {
+				child.appendMissing(fields);
+			}
+		}
+	}
+
+	// Streams the array a terminal path names: objects become the rows of a
+	// table, anything else a single column. Should the array turn out to mix
+	// objects with other values, the rows read so far are moved into a column
+	// of maps and the rest are appended to it.
+	private void readElements(JsonParser parser, Node node, JsonFields fields) throws IOException {
+		ResultTable table = null;
+		ResultColumn column = null;
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (table == null && column == null && token == JsonToken.START_OBJECT) {
+				table = fields.table(node.path);
+			} else if (column == null && table == null) {
+				column = fields.column(node.path);
+			} else if (table != null && token != JsonToken.START_OBJECT) {
+				column = fields.column(node.path);
+				for (Map<String, Object> row : table.asMaps()) {
+					column.append(new LinkedHashMap<>(row));
+				}
+				table = null;
+			}
+			if (table != null) {
+				readRow(parser, table);
+			} else if (token.isScalarValue()) {
+				append(parser, token, column);
+			} else {
+				column.append(MAPPER.readValue(parser, Object.class));
+			}
+		}
+		if (table == null && column == null) {
+			fields.table(node.path);
+		}
+	}
+
+	private void readRow(JsonParser parser, ResultTable table) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			ResultColumn column = table.column(parser.getCurrentName());
+			JsonToken token = parser.nextToken();
+			if (token.isScalarValue()) {
+				append(parser, token, column);
+			} else {
+				column.append(MAPPER.readValue(parser, Object.class));
+			}
+		}
+		table.endRow();
+	}
+
+	// Applies child paths to a value that was already materialised because a
+	// parent path was requested as well
+	private void evaluateChildren(Object value, Node node, boolean inArray, JsonFields fields) {
+		if (value instanceof List) {
+			node.ensureLists(fields);
+			for (Object element : (List<?>) value) {
+				evaluateChildren(element, node, true, fields);
+			}
+		} else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			for (Node child : node.children.values()) {
+				if (inArray && !map.containsKey(child.name)) {
+					child.appendMissing(fields);
+				} else {
+					Object childValue = map.get(child.name);
+					if (child.terminal) {
+						store(child, childValue, inArray, fields);
+					}
+					if (!child.children.isEmpty()) {
+						evaluateChildren(childValue, child, inArray, fields);
+					}
+				}
+			}
+		} else if (inArray) {
+			for (Node child : node.children.values()) {
+				child.appendMissing(fields);
+			}
+		}
+	}
+
+	private static Object scalar(JsonParser parser, JsonToken token) throws IOException {
+		switch (token) {
+		case VALUE_STRING:
+			return parser.getText();
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			return parser.getNumberValue();
+		case VALUE_TRUE:
+			return Boolean.TRUE;
+		case VALUE_FALSE:
+			return Boolean.FALSE;
+		default:
+			return null;
+		}
+	}
+
+	// Appends a scalar without boxing it where the column type allows
+	private static void append(JsonParser parser, JsonToken token, ResultColumn column) throws IOException {
+		switch (token) {
+		case VALUE_STRING:
+			column.appendString(parser.getText());
+			break;
+		case VALUE_NUMBER_INT:
+			JsonParser.NumberType numberType = parser.getNumberType();
+			if (numberType == JsonParser.NumberType.INT) {
+				column.appendInt(parser.getIntValue());
+			} else if (numberType == JsonParser.NumberType.LONG) {
+				column.appendLong(parser.getLongValue());
+			} else {
+				column.append(parser.getNumberValue());
+			}
+			break;
+		case VALUE_NUMBER_FLOAT:
+			column.appendDouble(parser.getDoubleValue());
+			break;
+		case VALUE_TRUE:
+			column.append(Boolean.TRUE);
+			break;
+		case VALUE_FALSE:
+			column.append(Boolean.FALSE);
+			break;
+		default:
+			column.appendNull();
+			break;
+		}
+	}
+
+	private static void store(Node node, Object value, boolean inArray, JsonFields fields) {
+		if (inArray) {
+			fields.column(node.path).append(value);
+		} else {
+			fields.put(node.path, value);
+		}
+	}
+
+	private static class Node {
+		private final String name;
+		private final String path;
+		private final Map<String, Node> children = new LinkedHashMap<>();
+		private int index;
+		private boolean terminal;
+
+		private Node(String name, String path) {
+			this.name = name;
+			this.path = path;
+		}
+
+		private Node child(String childName) {
+			Node child = children.get(childName);
+			if (child == null) {
+				child = new Node(childName, path == null ? childName : path + "." + childName);
+				child.index = children.size();
+				children.put(childName, child);
+			}
+			return child;
+		}
+
+		// Every terminal below an array becomes list valued, even when the array
+		// is empty
+		private void ensureLists(JsonFields fields) {
+			for (Node child : children.values()) {
+				if (child.terminal) {
+					fields.column(child.path);
+				}
+				child.ensureLists(fields);
+			}
+		}
+
+		private void appendMissing(JsonFields fields) {
+			if (terminal) {
+				fields.column(path).appendMissing();
+			}
+			for (Node child : children.values()) {
+				child.appendMissing(fields);
+			}
+		}
+	}
+}
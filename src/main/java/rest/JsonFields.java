@@ -0,0 +1,145 @@
+package rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values produced by one {@link JsonFieldExtractor} pass, keyed by the path
+ * they were requested with.
+ */
+public class JsonFields {
+
+	private final Map<String, Object> values = new HashMap<>();
+
+	JsonFields() {
+	}
+
+	/**
+	 * @param path - dot separated path the extractor was built with
+	 * @return {@link Object} - the extracted value, or null when the path was not
+	 *         present in the body
+	 */
+	public Object get(String path) {
+		return values.get(path);
+	}
+
+	/**
+	 * @param path - dot separated path the extractor was built with
+	 * @return {@link String} - the extracted value as a String, or null
+	 */
+	public String getString(String path) {
+		Object value = values.get(path);
+		return value == null ? null : value.toString();
+	}
+
+	/**
+	 * @param path - dot separated path the extractor was built with
+	 * @return {@link List} - the extracted values; a single value is wrapped in a
+	 *         list, an absent path returns null. Column and table values are
+	 *         returned as read-only views.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getList(String path) {
+		Object value = values.get(path);
+		if (value instanceof ResultColumn) {
+			return (List<T>) ((ResultColumn) value).asList();
+		}
+		if (value instanceof ResultTable) {
+			return (List<T>) ((ResultTable) value).asMaps();
+		}
+		if (value == null || value instanceof List) {
+			return (List<T>) value;
+		}
+		return (List<T>) Collections.singletonList(value);
+	}
+
+	/**
+	 * @param path - dot separated path that crosses an array, or names an array
+	 *             of scalars
+	 * @return {@link ResultColumn} - the extracted column, or null
+	 */
+	public ResultColumn getColumn(String path) {
+		Object value = values.get(path);
+		return value instanceof ResultColumn ? (ResultColumn) value : null;
+	}
+
+	/**
+	 * @param path - dot separated path that names an array of objects
+	 * @return {@link ResultTable} - one row per array element, or null
+	 */
+	public ResultTable getTable(String path) {
+		Object value = values.get(path);
+		return value instanceof ResultTable ? (ResultTable) value : null;
+	}
+
+	/**
+	 * This method groups several column paths into one table. Columns are named
+	 * after the last segment of their path.
+	 *
+	 * @param paths - dot separated paths that cross the same array
+	 * @return {@link ResultTable} - the columns side by side; paths that were not
+	 *         present in the body become columns of missing values
+	 */
+	public ResultTable getColumns(String... paths) {
+		int rowCount = 0;
+		for (String path : paths) {
+			ResultColumn column = getColumn(path);
+			rowCount = column == null ? rowCount : Math.max(rowCount, column.size());
+		}
+		List<String> names = new ArrayList<>();
+		List<ResultColumn> columns = new ArrayList<>();
+		for (String path : paths) {
+			ResultColumn column = getColumn(path);
+			if (column == null) {
+				column = new ResultColumn();
+				while (column.size() < rowCount) {
+					column.appendMissing();
+				}
+			}
+			names.add(path.substring(path.lastIndexOf('.') + 1));
+			columns.add(column);
+		}
+		return new ResultTable(names, columns);
+	}
+
+	/**
+	 * @param path - dot separated path the extractor was built with
+	 * @return {@link Map} - the extracted JSON object, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> getMap(String path) {
+		return (Map<String, Object>) values.get(path);
+	}
+
+	void put(String path, Object value) {
+		values.put(path, value);
+	}
+
+	ResultColumn column(String path) {
+		Object value = values.get(path);
+		if (!(value instanceof ResultColumn)) {
+			value = new ResultColumn();
+			values.put(path, value);
+		}
+		return (ResultColumn) value;
+	}
+
+	ResultTable table(String path) {
+		ResultTable table = new ResultTable();
+		values.put(path, table);
+		return table;
+	}
+
+	void seal() {
+		for (Object value : values.values()) {
+			if (value instanceof ResultColumn) {
+				((ResultColumn) value).seal();
+			} else if (value instanceof ResultTable) {
+				((ResultTable) value).seal();
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package rest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Cookies;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+/**
+ * The Response handed out by {@link CustomResponse#getResponse()}.
+ *
+ * Only the status, headers, cookies and a {@link BodyBuffer} of the received
+ * response are kept. Status, headers, timing and the raw body are answered
+ * from those; print and pretty-print go through {@link ResponseLog}; any other
+ * call (jsonPath, then, as...) builds a regular Rest Assured response from the
+ * buffer the first time it is needed and is delegated to it.
+ */
+class LazyResponse implements InvocationHandler {
+
+	private final BodyBuffer body;
+	private final int statusCode;
+	private final String statusLine;
+	private final Headers headers;
+	private final Cookies cookies;
+	private final String contentType;
+	private final long timeMillis;
+	private final Charset charset;
+	private volatile Response materialized;
+
+	private LazyResponse(Response response) {
+		this.statusCode = response.getStatusCode();
+		this.statusLine = response.getStatusLine();
+		this.headers = response.getHeaders();
+		this.cookies = response.getDetailedCookies();
+		this.contentType = response.getContentType();
+		this.timeMillis = timeOf(response);
+		this.charset = BodyBuffer.charsetOf(contentType);
+		this.body = BodyBuffer.of(response.asByteArray());
+	}
+
+	/**
+	 * @param response - a response as received, may be null
+	 * @return {@link Response} - a lazy view of it; responses that already are
+	 *         one are returned unchanged
+	 */
+	static Response wrap(Response response) {
+		if (response == null || handlerOf(response) != null) {
+			return response;
+		}
+		return (Response) Proxy.newProxyInstance(LazyResponse.class.getClassLoader(),
+				new Class<?>[] { Response.class }, new LazyResponse(response));
+	}
+
+	/**
+	 * @param response - any response
+	 * @return {@link LazyResponse} - its handler, null when it is not a lazy view
+	 */
+	static LazyResponse handlerOf(Response response) {
+		if (response != null && Proxy.isProxyClass(response.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(response);
+			if (handler instanceof LazyResponse) {
+				return (LazyResponse) handler;
+			}
+		}
+		return null;
+	}
+
+	String getStatusLine() {
+		return statusLine;
+	}
+
+	String bodyAsString() {
+		return body.asString(charset);
+	}
+
+	String bodyAsPrettyString() {
+		return body.toPrettyString(charset);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		int arity = args == null ? 0 : args.length;
+		if (arity == 0) {
+			switch (name) {
+			case "getStatusCode":
+			case "statusCode":
+				return statusCode;
+			case "getStatusLine":
+			case "statusLine":
+				return statusLine;
+			case "getHeaders":
+			case "headers":
+				return headers;
+			case "getDetailedCookies":
+			case "detailedCookies":
+				return cookies;
+			case "getContentType":
+			case "contentType":
+				return contentType;
+			case "getTime":
+			case "time":
+				return timeMillis;
+			case "asByteArray":
+				return body.toByteArray();
+			case "asInputStream":
+				return body.openStream();
+			case "asString":
+				return bodyAsString();
+			case "print":
+				return ResponseLog.print(this, false);
+			case "prettyPrint":
+				return ResponseLog.print(this, true);
+			case "peek":
+				ResponseLog.print(this, false);
+				return proxy;
+			case "prettyPeek":
+				ResponseLog.print(this, true);
+				return proxy;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "LazyResponse[" + statusLine + ", " + body.size() + " bytes"
+						+ (body.isMapped() ? ", mapped" : "") + "]";
+			default:
+				break;
+			}
+		} else if (arity == 1) {
+			switch (name) {
+			case "getHeader":
+			case "header":
+				return headers.getValue((String) args[0]);
+			case "getTimeIn":
+			case "timeIn":
+				return timeMillis < 0 ? timeMillis
+						: ((TimeUnit) args[0]).convert(timeMillis, TimeUnit.MILLISECONDS);
+			case "equals":
+				return proxy == args[0];
+			default:
+				break;
+			}
+		}
+		try {
+			return method.invoke(materialize(), args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private Response materialize() {
+		Response response = materialized;
+		if (response == null) {
+			synchronized (this) {
+				response = materialized;
+				if (response == null) {
+					ResponseBuilder builder = new ResponseBuilder().setStatusCode(statusCode).setStatusLine(statusLine)
+							.setHeaders(headers).setCookies(cookies).setBody(body.toByteArray());
+					if (contentType != null) {
+						builder.setContentType(contentType);
+					}
+					response = builder.build();
+					materialized = response;
+				}
+			}
+		}
+		return response;
+	}
+
+	// Responses built outside a request, like those of the non-blocking client,
+	// carry no timing
+	private static long timeOf(Response response) {
+		try {
+			return response.getTime();
+		} catch (RuntimeException e) {
+			return -1;
+		}
+	}
+}
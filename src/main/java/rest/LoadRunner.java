@@ -0,0 +1,391 @@
+package rest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import coreUtilities.utils.Log;
+import coreUtilities.utils.VirtualThreads;
+import restConfig.ConfigManager;
+
+/**
+ * Drives load against the API by replaying {@link ApiUtil} calls.
+ *
+ * The runner uses an open model: requests are started on a fixed schedule
+ * derived from the target rate, independent of how quickly earlier requests
+ * complete, so a slow server cannot throttle the offered load. The rate ramps
+ * up linearly from zero to the target over the ramp-up period, which counts
+ * towards the total duration. Each arrival picks one of the registered
+ * operations at random according to its weight.
+ *
+ * Latency is measured from the moment a request was scheduled to start, not
+ * from when a worker picked it up, so queueing delay on the load generator
+ * itself shows up in the numbers instead of being hidden (coordinated
+ * omission). Latencies are recorded per operation in HdrHistograms.
+ *
+ * Workers are virtual threads when the virtual thread mode is on, otherwise
+ * a cached pool of daemon threads.
+ *
+ * The calls go through the ApiUtil base spec, so http.cache.enabled and
+ * http.coalesce.enabled (both off by default) must stay off for a load run:
+ * a cache hit or a request merged into another never reaches the server, and
+ * its latency would be recorded all the same.
+ */
+public class LoadRunner {
+
+	private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+	private final ApiUtil api = new ApiUtil();
+	private final List<Operation> operations = new ArrayList<>();
+	private final double targetRps;
+	private final long rampUpNanos;
+	private final long durationNanos;
+	private int totalWeight;
+
+	/**
+	 * @param targetRps - requests per second to reach after ramp-up
+	 * @param rampUp    - time to ramp up from 0 to targetRps
+	 * @param duration  - total run time, ramp-up included
+	 * @param unit      - unit of rampUp and duration
+	 */
+	public LoadRunner(double targetRps, long rampUp, long duration, TimeUnit unit) {
+		if (targetRps <= 0) {
+			throw new IllegalArgumentException("targetRps must be positive");
+		}
+		this.targetRps = targetRps;
+		this.rampUpNanos = Math.min(unit.toNanos(rampUp), unit.toNanos(duration));
+		this.durationNanos = unit.toNanos(duration);
+	}
+
+	/**
+	 * This method registers an operation that counts as successful when the
+	 * response has a 2xx status code and, if present, a "Status" of "OK".
+	 *
+	 * @param name   - name the latencies are reported under
+	 * @param weight - relative share of the arrivals
+	 * @param call   - the ApiUtil call to make
+	 */
+	public void addOperation(String name, int weight, Function<ApiUtil, CustomResponse> call) {
+		addOperation(name, weight, call,
+				response -> response.getStatusCode() / 100 == 2
+						&& (response.getStatus() == null || "OK".equals(response.getStatus())));
+	}
+
+	/**
+	 * @param name   - name the latencies are reported under
+	 * @param weight - relative share of the arrivals
+	 * @param call   - the ApiUtil call to make
+	 * @param check  - validation applied to every response, e.g. the same check
+	 *               the functional test makes
+	 */
+	public void addOperation(String name, int weight, Function<ApiUtil, CustomResponse> call,
+			Predicate<CustomResponse> check) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("weight must be positive");
+		}
+		operations.add(new Operation(name, weight, call, check));
+		totalWeight += weight;
+	}
+
+	/**
+	 * This method runs the load for the configured duration and waits for the
+	 * requests still in flight, at most http.socket.timeout.ms plus 10 seconds.
+	 * Requests still running after that are interrupted and the report is
+	 * marked incomplete.
+	 *
+	 * @return {@link Report} - per operation counts and latency histograms
+	 */
+	public Report run() throws InterruptedException {
+		if (operations.isEmpty()) {
+			throw new IllegalStateException("No operations registered");
+		}
+		ExecutorService workers = createWorkers();
+		long start = System.nanoTime();
+		long scheduled = 0;
+		try {
+			for (long n = 0;; n++) {
+				long offset = arrivalOffset(n);
+				if (offset >= durationNanos) {
+					break;
+				}
+				long intendedStart = start + offset;
+				long wait = intendedStart - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				Operation operation = pick();
+				workers.execute(() -> operation.invoke(api, intendedStart));
+				scheduled++;
+			}
+		} finally {
+			workers.shutdown();
+		}
+		boolean complete = workers.awaitTermination(ApiClient.intProperty("http.socket.timeout.ms", 60000) + 10000L,
+				TimeUnit.MILLISECONDS);
+		if (!complete) {
+			workers.shutdownNow();
+		}
+		Report report = new Report(operations, scheduled, System.nanoTime() - start, complete);
+		if (!complete) {
+			Log.warn("Load report is incomplete: {} of {} requests were still running", report.getUnfinished(),
+					scheduled);
+		}
+		return report;
+	}
+
+	// Start offset of the n-th request. During ramp-up the rate grows linearly,
+	// so the number of arrivals by time t is rate * t^2 / (2 * rampUp).
+	private long arrivalOffset(long n) {
+		double ratePerNano = targetRps / TimeUnit.SECONDS.toNanos(1);
+		double rampArrivals = ratePerNano * rampUpNanos / 2;
+		if (n < rampArrivals) {
+			return (long) Math.sqrt(2.0 * n * rampUpNanos / ratePerNano);
+		}
+		return rampUpNanos + (long) ((n - rampArrivals) / ratePerNano);
+	}
+
+	private Operation pick() {
+		int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (Operation operation : operations) {
+			ticket -= operation.weight;
+			if (ticket < 0) {
+				return operation;
+			}
+		}
+		return operations.get(operations.size() - 1);
+	}
+
+	private static ExecutorService createWorkers() {
+		if (VirtualThreads.isEnabled()) {
+			return Executors.newCachedThreadPool(VirtualThreads.factory());
+		}
+		AtomicInteger count = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "load-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Runs a load test configured in config.properties (or with -D overrides):
+	 *
+	 * <pre>
+	 * load.rps, load.rampUp.s, load.duration.s,
+	 * load.mix = methodName|endpoint|weight;methodName|endpoint|weight;...
+	 * </pre>
+	 *
+	 * where methodName is any ApiUtil endpoint method, e.g.
+	 * getMainStore|/PharmacySettings/MainStore|3
+	 */
+	public static void main(String[] args) throws Exception {
+		LoadRunner runner = new LoadRunner(Double.parseDouble(ConfigManager.getProperty("load.rps", "10").trim()),
+				Long.parseLong(ConfigManager.getProperty("load.rampUp.s", "10").trim()),
+				Long.parseLong(ConfigManager.getProperty("load.duration.s", "60").trim()), TimeUnit.SECONDS);
+		for (String entry : ConfigManager.getProperty("load.mix", "").split(";")) {
+			if (entry.trim().isEmpty()) {
+				continue;
+			}
+			String[] parts = entry.trim().split("\\|");
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("Expected methodName|endpoint|weight but got: " + entry);
+			}
+			Method method = ApiUtil.class.getMethod(parts[0].trim(), String.class, Object.class);
+			String endpoint = parts[1].trim();
+			runner.addOperation(parts[0].trim(), Integer.parseInt(parts[2].trim()), api -> {
+				try {
+					return (CustomResponse) method.invoke(api, endpoint, null);
+				} catch (InvocationTargetException e) {
+					throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+							: new RuntimeException(e.getCause());
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+		}
+		System.out.println(runner.run());
+	}
+
+	private static class Operation {
+		private final String name;
+		private final int weight;
+		private final Function<ApiUtil, CustomResponse> call;
+		private final Predicate<CustomResponse> check;
+		private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+		private final LongAdder successes = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+
+		private Operation(String name, int weight, Function<ApiUtil, CustomResponse> call,
+				Predicate<CustomResponse> check) {
+			this.name = name;
+			this.weight = weight;
+			this.call = call;
+			this.check = check;
+		}
+
+		private void invoke(ApiUtil api, long intendedStart) {
+			try {
+				CustomResponse response = call.apply(api);
+				if (check.test(response)) {
+					successes.increment();
+				} else {
+					failures.increment();
+				}
+			} catch (RuntimeException e) {
+				errors.increment();
+			} finally {
+				latencies.recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+			}
+		}
+	}
+
+	/**
+	 * Outcome of one {@link LoadRunner#run()}.
+	 */
+	public static class Report {
+		private final List<OperationStats> operations = new ArrayList<>();
+		private final long scheduled;
+		private final long elapsedNanos;
+		private final boolean complete;
+
+		private Report(List<Operation> operations, long scheduled, long elapsedNanos, boolean complete) {
+			for (Operation operation : operations) {
+				this.operations.add(new OperationStats(operation));
+			}
+			this.scheduled = scheduled;
+			this.elapsedNanos = elapsedNanos;
+			this.complete = complete;
+		}
+
+		/**
+		 * @return {@link List} - statistics per registered operation
+		 */
+		public List<OperationStats> getOperations() {
+			return Collections.unmodifiableList(operations);
+		}
+
+		/**
+		 * @return {@link Long} - number of requests started
+		 */
+		public long getScheduled() {
+			return scheduled;
+		}
+
+		/**
+		 * @return {@link Boolean} - false when requests were still running as the
+		 *         report was taken, so the counts and latencies miss them
+		 */
+		public boolean isComplete() {
+			return complete;
+		}
+
+		/**
+		 * @return {@link Long} - requests started but not counted as ok, failed
+		 *         or error
+		 */
+		public long getUnfinished() {
+			long finished = 0;
+			for (OperationStats stats : operations) {
+				finished += stats.getSuccesses() + stats.getFailures() + stats.getErrors();
+			}
+			return Math.max(0, scheduled - finished);
+		}
+
+		/**
+		 * @return {@link Double} - requests started per second over the whole run
+		 */
+		public double getAchievedRps() {
+			return scheduled / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder text = new StringBuilder(String.format("%d requests in %.1f s (%.1f rps)%n", scheduled,
+					elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1), getAchievedRps()));
+			if (!complete) {
+				text.append(String.format("INCOMPLETE: %d requests were still running and are not counted%n",
+						getUnfinished()));
+			}
+			text.append(String.format("%-50s %8s %8s %8s %10s %10s %10s %10s%n", "operation", "ok", "failed",
+					"errors", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+			for (OperationStats stats : operations) {
+				text.append(String.format("%-50s %8d %8d %8d %10.1f %10.1f %10.1f %10.1f%n", stats.getName(),
+						stats.getSuccesses(), stats.getFailures(), stats.getErrors(), stats.getPercentileMillis(50),
+						stats.getPercentileMillis(90), stats.getPercentileMillis(99), stats.getMaxMillis()));
+			}
+			return text.toString();
+		}
+	}
+
+	/**
+	 * Counts and latency distribution of one operation.
+	 */
+	public static class OperationStats {
+		private final String name;
+		private final long successes;
+		private final long failures;
+		private final long errors;
+		private final Histogram latencies;
+
+		private OperationStats(Operation operation) {
+			this.name = operation.name;
+			this.successes = operation.successes.sum();
+			this.failures = operation.failures.sum();
+			this.errors = operation.errors.sum();
+			this.latencies = operation.latencies.getIntervalHistogram();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getSuccesses() {
+			return successes;
+		}
+
+		public long getFailures() {
+			return failures;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return {@link Histogram} - latencies in nanoseconds
+		 */
+		public Histogram getLatencies() {
+			return latencies;
+		}
+
+		/**
+		 * @param percentile - e.g. 99.9
+		 * @return {@link Double} - latency at the percentile in milliseconds
+		 */
+		public double getPercentileMillis(double percentile) {
+			return latencies.getValueAtPercentile(percentile) / 1e6;
+		}
+
+		/**
+		 * @return {@link Double} - highest latency in milliseconds
+		 */
+		public double getMaxMillis() {
+			return latencies.getMaxValue() / 1e6;
+		}
+	}
+}
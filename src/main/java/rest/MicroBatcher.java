@@ -0,0 +1,151 @@
+package rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects single-key lookups for a short window and sends them as one call,
+ * for endpoints that accept a list of IDs.
+ *
+ * The first key submitted opens a window of windowMillis; every key submitted
+ * until it closes, or until maxBatch distinct keys are waiting, goes out in
+ * the same call. Keys asked for twice in a window are sent once. The batch
+ * call answers with a map from key to result; a key missing from that map
+ * completes its future with an IllegalStateException, and a failed batch call
+ * fails every future of the batch.
+ *
+ * <pre>
+ * MicroBatcher&lt;Integer, Object&gt; patients = new MicroBatcher&lt;&gt;(5, 50,
+ * 		ids -&gt; fetchPatients(ids)); // one request for the whole list
+ * CompletableFuture&lt;Object&gt; patient = patients.submit(114);
+ * </pre>
+ *
+ * @param <K> - ID sent in the list
+ * @param <V> - result for one ID
+ */
+public class MicroBatcher<K, V> {
+
+	private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "micro-batcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final long windowMillis;
+	private final int maxBatch;
+	private final Function<List<K>, CompletableFuture<Map<K, V>>> batchCall;
+
+	private Map<K, CompletableFuture<V>> waiting = new LinkedHashMap<>();
+
+	/**
+	 * @param windowMillis - how long the first key of a batch waits for others
+	 * @param maxBatch     - distinct keys after which a batch is sent at once
+	 * @param batchCall    - sends the IDs and maps each one to its result
+	 */
+	public MicroBatcher(long windowMillis, int maxBatch, Function<List<K>, CompletableFuture<Map<K, V>>> batchCall) {
+		if (windowMillis < 0 || maxBatch < 1) {
+			throw new IllegalArgumentException("windowMillis must not be negative and maxBatch must be at least 1");
+		}
+		this.windowMillis = windowMillis;
+		this.maxBatch = maxBatch;
+		this.batchCall = batchCall;
+	}
+
+	/**
+	 * @param key - the ID to look up
+	 * @return {@link CompletableFuture} - completes with the result for the key
+	 *         once its batch has been answered
+	 */
+	public CompletableFuture<V> submit(K key) {
+		CompletableFuture<V> result;
+		Map<K, CompletableFuture<V>> full = null;
+		synchronized (this) {
+			result = waiting.get(key);
+			if (result != null) {
+				return result;
+			}
+			result = new CompletableFuture<>();
+			waiting.put(key, result);
+			if (waiting.size() >= maxBatch) {
+				full = takeWaiting();
+			} else if (waiting.size() == 1) {
+				Map<K, CompletableFuture<V>> batch = waiting;
+				TIMER.schedule(() -> flush(batch), windowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		if (full != null) {
+			send(full);
+		}
+		return result;
+	}
+
+	/**
+	 * This method sends the keys waiting in the current window right away.
+	 */
+	public void flush() {
+		Map<K, CompletableFuture<V>> batch;
+		synchronized (this) {
+			batch = takeWaiting();
+		}
+		send(batch);
+	}
+
+	// Called by the timer of a window; does nothing when that window has
+	// already been sent because it filled up or was flushed
+	private void flush(Map<K, CompletableFuture<V>> window) {
+		synchronized (this) {
+			if (waiting != window) {
+				return;
+			}
+			takeWaiting();
+		}
+		send(window);
+	}
+
+	private Map<K, CompletableFuture<V>> takeWaiting() {
+		Map<K, CompletableFuture<V>> batch = waiting;
+		waiting = new LinkedHashMap<>();
+		return batch;
+	}
+
+	private void send(Map<K, CompletableFuture<V>> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		CompletableFuture<Map<K, V>> answer;
+		try {
+			answer = batchCall.apply(new ArrayList<>(batch.keySet()));
+		} catch (RuntimeException e) {
+			failAll(batch.values(), e);
+			return;
+		}
+		answer.whenComplete((results, failure) -> {
+			if (failure != null) {
+				failAll(batch.values(), failure);
+				return;
+			}
+			for (Map.Entry<K, CompletableFuture<V>> waiter : batch.entrySet()) {
+				if (results != null && results.containsKey(waiter.getKey())) {
+					waiter.getValue().complete(results.get(waiter.getKey()));
+				} else {
+					waiter.getValue().completeExceptionally(
+							new IllegalStateException("The batch call returned no result for " + waiter.getKey()));
+				}
+			}
+		});
+	}
+
+	private static <V> void failAll(Collection<CompletableFuture<V>> waiters, Throwable failure) {
+		for (CompletableFuture<V> waiter : waiters) {
+			waiter.completeExceptionally(failure);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package rest;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * RestAssured filter bounding how many blocking ApiUtil requests are on the
+ * wire at once.
+ *
+ * The limit is http.maxConcurrentRequests; 0 (the default) installs no
+ * limiter. It is meant for the virtual thread mode, where hundreds of test
+ * methods may call the API at the same time and a fair semaphore, rather
+ * than the size of a platform thread pool, decides how many of them proceed.
+ * Waiting callers on virtual threads park without holding an OS thread.
+ */
+public class RequestLimiter implements OrderedFilter {
+
+	private final ResizableSemaphore permits;
+
+	/**
+	 * @param maxConcurrentRequests - number of requests allowed in flight
+	 */
+	public RequestLimiter(int maxConcurrentRequests) {
+		this.permits = new ResizableSemaphore(maxConcurrentRequests, true);
+	}
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a request permit", e);
+		}
+		try {
+			return ctx.next(requestSpec, responseSpec);
+		} finally {
+			permits.release();
+		}
+	}
+
+	// Inside the response cache and the coalescing filter, so cache hits and
+	// shared requests never wait for a permit, and time spent waiting is not
+	// counted by the filters that run inside it
+	@Override
+	public int getOrder() {
+		return HIGHEST_PRECEDENCE + 2;
+	}
+
+	/**
+	 * @return {@link Integer} - number of requests that could start right now
+	 */
+	public int availablePermits() {
+		return permits.availablePermits();
+	}
+
+	/**
+	 * This method changes the limit while requests are running. A lower limit
+	 * lets no new request start until enough running ones have finished.
+	 *
+	 * @param maxConcurrentRequests - number of requests allowed in flight
+	 */
+	public void setLimit(int maxConcurrentRequests) {
+		permits.resize(maxConcurrentRequests);
+	}
+
+	/**
+	 * @return {@link Integer} - number of requests allowed in flight
+	 */
+	public int getLimit() {
+		return permits.getLimit();
+	}
+}
@@ -0,0 +1,300 @@
+package rest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import restConfig.ConfigManager;
+
+/**
+ * Per-endpoint latency and size histograms of every request made through
+ * {@link ApiUtil}, blocking and async.
+ *
+ * Requests are grouped by method and path, with the query string dropped and
+ * numeric path segments replaced by {id}, so
+ * /DispensaryRequisition/Dispensary/1 and .../2 share one entry. For each
+ * endpoint the total time, time to first byte, DNS, connect and TLS times (new
+ * connections only) and the response body size, decoded and as received, are
+ * kept in HdrHistograms with two significant digits. Responses answered from
+ * the {@link ResponseCache} are not counted, as they never reach the server.
+ *
+ * {@link #writeReport()} writes p50/p90/p99/max of every metric to
+ * http.timings.report at the end of the suite.
+ */
+public class RequestMetrics {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+	private static final long HIGHEST_TRACKABLE_BYTES = 1L << 30;
+
+	private static final String BASE_PATH = URI.create(ApiClient.getBaseUrl()).getPath();
+
+	private static final ConcurrentMap<String, EndpointStats> ENDPOINTS = new ConcurrentHashMap<>();
+
+	/**
+	 * This method records one finished request.
+	 *
+	 * @param method - HTTP method
+	 * @param url    - request URL, absolute or relative to base.url
+	 * @param timing - timings of the exchange; a total of -1 counts as an error
+	 */
+	public static void record(String method, String url, RequestTiming timing) {
+		String endpoint = method.toUpperCase() + " " + normalize(url);
+		ENDPOINTS.computeIfAbsent(endpoint, EndpointStats::new).record(timing);
+	}
+
+	/**
+	 * @return {@link List} - a snapshot of every endpoint seen so far, sorted by
+	 *         name
+	 */
+	public static List<EndpointStats> getEndpoints() {
+		List<EndpointStats> endpoints = new ArrayList<>(ENDPOINTS.values());
+		endpoints.sort((a, b) -> a.getEndpoint().compareTo(b.getEndpoint()));
+		return endpoints;
+	}
+
+	/**
+	 * This method forgets every recorded request.
+	 */
+	public static void reset() {
+		ENDPOINTS.clear();
+	}
+
+	/**
+	 * This method writes the report to http.timings.report (relative paths are
+	 * resolved against user.dir) and prints the total time summary to stdout.
+	 * Nothing is written when no request was recorded.
+	 *
+	 * @return {@link File} - the report file, or null when nothing was recorded
+	 */
+	public static File writeReport() throws IOException {
+		List<EndpointStats> endpoints = getEndpoints();
+		if (endpoints.isEmpty()) {
+			return null;
+		}
+		File file = new File(ConfigManager.getProperty("http.timings.report", "TestReport/api-timings.csv"));
+		if (!file.isAbsolute()) {
+			file = new File(System.getProperty("user.dir"), file.getPath());
+		}
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+			writeCsv(endpoints, writer);
+		}
+		System.out.print(summary(endpoints));
+		return file;
+	}
+
+	/**
+	 * This method writes one CSV row per endpoint and metric. Times are in
+	 * milliseconds, body sizes in bytes.
+	 *
+	 * @param endpoints - from {@link #getEndpoints()}
+	 * @param writer    - destination
+	 */
+	public static void writeCsv(List<EndpointStats> endpoints, PrintWriter writer) {
+		writer.println("endpoint,metric,count,errors,p50,p90,p99,max");
+		for (EndpointStats stats : endpoints) {
+			for (Map.Entry<String, Histogram> metric : stats.getMetrics().entrySet()) {
+				Histogram histogram = metric.getValue();
+				double scale = metric.getKey().endsWith("Bytes") ? 1 : 1000;
+				writer.printf("\"%s\",%s,%d,%d,%.3f,%.3f,%.3f,%.3f%n", stats.getEndpoint().replace("\"", "\"\""),
+						metric.getKey(), histogram.getTotalCount(), stats.getErrors(),
+						histogram.getValueAtPercentile(50) / scale, histogram.getValueAtPercentile(90) / scale,
+						histogram.getValueAtPercentile(99) / scale, histogram.getMaxValue() / scale);
+			}
+		}
+	}
+
+	/**
+	 * @param endpoints - from {@link #getEndpoints()}
+	 * @return {@link String} - a table of request counts and total time
+	 *         percentiles per endpoint
+	 */
+	public static String summary(List<EndpointStats> endpoints) {
+		StringBuilder text = new StringBuilder(String.format("%-60s %7s %7s %9s %9s %9s %9s %9s%n", "endpoint",
+				"count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "ttfb p50"));
+		for (EndpointStats stats : endpoints) {
+			Histogram total = stats.getTotal();
+			text.append(String.format("%-60s %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", stats.getEndpoint(),
+					total.getTotalCount(), stats.getErrors(), total.getValueAtPercentile(50) / 1000.0,
+					total.getValueAtPercentile(90) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+					total.getMaxValue() / 1000.0, stats.getTtfb().getValueAtPercentile(50) / 1000.0));
+		}
+		return text.toString();
+	}
+
+	// /api/DispensaryRequisition/Dispensary/1?x=y -> /DispensaryRequisition/Dispensary/{id}
+	static String normalize(String url) {
+		String path;
+		try {
+			path = URI.create(url).getRawPath();
+		} catch (IllegalArgumentException e) {
+			int query = url.indexOf('?');
+			path = query < 0 ? url : url.substring(0, query);
+		}
+		if (path == null || path.isEmpty()) {
+			return "/";
+		}
+		if (!BASE_PATH.isEmpty() && !BASE_PATH.equals("/") && path.startsWith(BASE_PATH)) {
+			path = path.substring(BASE_PATH.length());
+		}
+		StringBuilder normalized = new StringBuilder();
+		for (String segment : path.split("/")) {
+			if (segment.isEmpty()) {
+				continue;
+			}
+			normalized.append('/').append(isNumeric(segment) ? "{id}" : segment);
+		}
+		return normalized.length() == 0 ? "/" : normalized.toString();
+	}
+
+	private static boolean isNumeric(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			if (!Character.isDigit(segment.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Histograms of one endpoint. Times are recorded in microseconds.
+	 */
+	public static class EndpointStats {
+		private final String endpoint;
+		private final Metric total = new Metric(HIGHEST_TRACKABLE_MICROS);
+		private final Metric ttfb = new Metric(HIGHEST_TRACKABLE_MICROS);
+		private final Metric dns = new Metric(HIGHEST_TRACKABLE_MICROS);
+		private final Metric connect = new Metric(HIGHEST_TRACKABLE_MICROS);
+		private final Metric tls = new Metric(HIGHEST_TRACKABLE_MICROS);
+		private final Metric bodyBytes = new Metric(HIGHEST_TRACKABLE_BYTES);
+		private final Metric wireBytes = new Metric(HIGHEST_TRACKABLE_BYTES);
+		private final LongAdder errors = new LongAdder();
+
+		private EndpointStats(String endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		private void record(RequestTiming timing) {
+			if (timing.getTotalNanos() < 0 || timing.getBodyBytes() < 0) {
+				errors.increment();
+				return;
+			}
+			total.recordNanos(timing.getTotalNanos());
+			ttfb.recordNanos(timing.getTtfbNanos());
+			dns.recordNanos(timing.getDnsNanos());
+			connect.recordNanos(timing.getConnectNanos());
+			tls.recordNanos(timing.getTlsNanos());
+			bodyBytes.record(timing.getBodyBytes());
+			wireBytes.record(timing.getWireBytes());
+		}
+
+		/**
+		 * @return {@link String} - method and normalized path
+		 */
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		/**
+		 * @return {@link Long} - requests that failed without a response
+		 */
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		public Histogram getTotal() {
+			return total.snapshot();
+		}
+
+		public Histogram getTtfb() {
+			return ttfb.snapshot();
+		}
+
+		public Histogram getDns() {
+			return dns.snapshot();
+		}
+
+		public Histogram getConnect() {
+			return connect.snapshot();
+		}
+
+		public Histogram getTls() {
+			return tls.snapshot();
+		}
+
+		public Histogram getBodyBytes() {
+			return bodyBytes.snapshot();
+		}
+
+		/**
+		 * @return {@link Histogram} - body sizes before decompression, recorded
+		 *         by the blocking client only
+		 */
+		public Histogram getWireBytes() {
+			return wireBytes.snapshot();
+		}
+
+		/**
+		 * @return {@link Map} - every histogram of the endpoint by metric name, in
+		 *         report order
+		 */
+		public Map<String, Histogram> getMetrics() {
+			Map<String, Histogram> metrics = new LinkedHashMap<>();
+			metrics.put("totalMs", getTotal());
+			metrics.put("ttfbMs", getTtfb());
+			metrics.put("dnsMs", getDns());
+			metrics.put("connectMs", getConnect());
+			metrics.put("tlsMs", getTls());
+			metrics.put("bodyBytes", getBodyBytes());
+			metrics.put("wireBytes", getWireBytes());
+			return Collections.unmodifiableMap(metrics);
+		}
+	}
+
+	// Recording is wait-free through the Recorder; reads fold the values
+	// recorded since the last read into a running histogram.
+	private static class Metric {
+		private final long highestTrackableValue;
+		private final Recorder recorder;
+		private final Histogram accumulated;
+
+		private Metric(long highestTrackableValue) {
+			this.highestTrackableValue = highestTrackableValue;
+			this.recorder = new Recorder(highestTrackableValue, 2);
+			this.accumulated = new Histogram(highestTrackableValue, 2);
+		}
+
+		private void recordNanos(long nanos) {
+			if (nanos >= 0) {
+				record(TimeUnit.NANOSECONDS.toMicros(nanos));
+			}
+		}
+
+		private void record(long value) {
+			if (value >= 0) {
+				recorder.recordValue(Math.min(value, highestTrackableValue));
+			}
+		}
+
+		private synchronized Histogram snapshot() {
+			accumulated.add(recorder.getIntervalHistogram());
+			return accumulated.copy();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package rest;
+
+/**
+ * Timings of a single HTTP exchange, filled in by the instrumented HTTP
+ * clients behind {@link ApiUtil}.
+ *
+ * DNS, connect and TLS times are only present when the request had to open a
+ * new connection; a request served over a pooled keep-alive connection
+ * reports -1 for them. Times are in nanoseconds.
+ */
+public class RequestTiming {
+
+	private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+	private final long startNanos = System.nanoTime();
+	private long dnsNanos = -1;
+	private long connectNanos = -1;
+	private long tlsNanos = -1;
+	private long ttfbNanos = -1;
+	private long totalNanos = -1;
+	private long bodyBytes = -1;
+	private long wireBytes = -1;
+
+	RequestTiming() {
+	}
+
+	// The blocking client runs the whole exchange on the calling thread, so the
+	// connection hooks find the timing of their request here
+	static RequestTiming start() {
+		RequestTiming timing = new RequestTiming();
+		CURRENT.set(timing);
+		return timing;
+	}
+
+	static RequestTiming current() {
+		return CURRENT.get();
+	}
+
+	static void clear() {
+		CURRENT.remove();
+	}
+
+	void addDns(long nanos) {
+		dnsNanos = Math.max(dnsNanos, 0) + nanos;
+	}
+
+	void addConnect(long nanos) {
+		connectNanos = Math.max(connectNanos, 0) + nanos;
+	}
+
+	void addTls(long nanos) {
+		tlsNanos = Math.max(tlsNanos, 0) + nanos;
+	}
+
+	void addWireBytes(long bytes) {
+		wireBytes = Math.max(wireBytes, 0) + bytes;
+	}
+
+	// Only the first response header counts, not a 100-continue or a retry
+	void firstByte() {
+		if (ttfbNanos < 0) {
+			ttfbNanos = System.nanoTime() - startNanos;
+		}
+	}
+
+	void finish(long bodyBytes) {
+		this.totalNanos = System.nanoTime() - startNanos;
+		this.bodyBytes = bodyBytes;
+	}
+
+	/**
+	 * @return {@link Long} - time spent resolving the host name, or -1
+	 */
+	public long getDnsNanos() {
+		return dnsNanos;
+	}
+
+	/**
+	 * @return {@link Long} - time spent opening the TCP connection, or -1
+	 */
+	public long getConnectNanos() {
+		return connectNanos;
+	}
+
+	/**
+	 * @return {@link Long} - time spent on the TLS handshake, or -1
+	 */
+	public long getTlsNanos() {
+		return tlsNanos;
+	}
+
+	/**
+	 * @return {@link Long} - time from the start of the request until the
+	 *         response status line arrived, or -1 when no response arrived
+	 */
+	public long getTtfbNanos() {
+		return ttfbNanos;
+	}
+
+	/**
+	 * @return {@link Long} - time until the whole response body was read, or -1
+	 *         while the request is still running
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * @return {@link Long} - size of the decoded response body in bytes, or -1
+	 *         when the request failed
+	 */
+	public long getBodyBytes() {
+		return bodyBytes;
+	}
+
+	/**
+	 * @return {@link Long} - size of the response body as received, before
+	 *         decompression, or -1 when it was not measured
+	 */
+	public long getWireBytes() {
+		return wireBytes;
+	}
+}
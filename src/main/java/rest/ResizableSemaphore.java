@@ -0,0 +1,39 @@
+package rest;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A semaphore whose number of permits can be changed while permits are held.
+ * Shrinking takes effect as held permits are released; callers already past
+ * the semaphore are never interrupted.
+ */
+class ResizableSemaphore extends Semaphore {
+
+	private static final long serialVersionUID = 1L;
+
+	private int limit;
+
+	ResizableSemaphore(int limit, boolean fair) {
+		super(limit, fair);
+		this.limit = limit;
+	}
+
+	synchronized int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @param newLimit - the new number of permits, at least 1
+	 */
+	synchronized void resize(int newLimit) {
+		if (newLimit < 1) {
+			throw new IllegalArgumentException("A limit must be at least 1, not " + newLimit);
+		}
+		if (newLimit > limit) {
+			release(newLimit - limit);
+		} else if (newLimit < limit) {
+			reducePermits(limit - newLimit);
+		}
+		limit = newLimit;
+	}
+}
@@ -0,0 +1,275 @@
+package rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * In-memory cache for idempotent GET responses, installed on the ApiUtil base
+ * spec when http.cache.enabled is true.
+ *
+ * Entries are keyed by the full request URL plus a hash of the Authorization
+ * header, so callers with different tokens never share an entry. The cache
+ * holds at most http.cache.maxEntries responses, evicting the least recently
+ * used, and serves an entry without a round-trip for http.cache.ttl.ms. After
+ * that a stale entry carrying an ETag or Last-Modified header is revalidated
+ * with If-None-Match / If-Modified-Since, and a 304 answer renews it.
+ *
+ * Only successful (200) responses to GET requests without a body are stored,
+ * and never when the server sends Cache-Control: no-store.
+ */
+public class ResponseCache implements OrderedFilter {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static volatile HashedHeader lastHashed;
+
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final Map<String, Entry> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+
+	/**
+	 * @param maxEntries - number of responses kept before the least recently
+	 *                   used is evicted
+	 * @param ttlMillis  - how long an entry is served without asking the server
+	 */
+	public ResponseCache(int maxEntries, long ttlMillis) {
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > ResponseCache.this.maxEntries;
+			}
+		};
+	}
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		if (!"GET".equalsIgnoreCase(requestSpec.getMethod()) || requestSpec.getBody() != null) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+		String key = key(requestSpec.getURI(), requestSpec.getHeaders().getValue("Authorization"));
+		Response cached = getFresh(key);
+		if (cached != null) {
+			return cached;
+		}
+		for (Map.Entry<String, String> validator : getValidators(key).entrySet()) {
+			requestSpec.header(validator.getKey(), validator.getValue());
+		}
+		return onResponse(key, ctx.next(requestSpec, responseSpec));
+	}
+
+	// Runs outside every other filter so a hit skips them, including the
+	// request limiter
+	@Override
+	public int getOrder() {
+		return HIGHEST_PRECEDENCE;
+	}
+
+	/**
+	 * @param url        - full request URL including the query string
+	 * @param authHeader - Authorization header value, may be null
+	 * @return {@link String} - the cache key for the request
+	 */
+	public static String key(String url, String authHeader) {
+		return url + "#" + hash(authHeader == null ? "" : authHeader);
+	}
+
+	/**
+	 * This method returns the cached response when it is still within its TTL,
+	 * counting a hit or a miss.
+	 *
+	 * @param key - cache key from {@link #key(String, String)}
+	 * @return {@link Response} - a copy of the cached response, or null
+	 */
+	public Response getFresh(String key) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry != null && System.currentTimeMillis() - entry.storedAt < ttlMillis) {
+			hits.increment();
+			return entry.toResponse();
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * @param key - cache key from {@link #key(String, String)}
+	 * @return {@link Map} - conditional request headers for a stale entry, empty
+	 *         when there is nothing to revalidate
+	 */
+	public Map<String, String> getValidators(String key) {
+		Map<String, String> validators = new LinkedHashMap<>();
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry != null) {
+			if (entry.etag != null) {
+				validators.put("If-None-Match", entry.etag);
+			}
+			if (entry.lastModified != null) {
+				validators.put("If-Modified-Since", entry.lastModified);
+			}
+		}
+		return validators;
+	}
+
+	/**
+	 * This method records the server's answer: a 304 renews and returns the
+	 * cached entry, a cacheable 200 is stored, anything else passes through.
+	 *
+	 * @param key      - cache key from {@link #key(String, String)}
+	 * @param response - the response received from the server
+	 * @return {@link Response} - the response to hand to the caller
+	 */
+	public Response onResponse(String key, Response response) {
+		if (response.getStatusCode() == 304) {
+			Entry entry;
+			synchronized (entries) {
+				entry = entries.get(key);
+			}
+			if (entry != null) {
+				entry.storedAt = System.currentTimeMillis();
+				revalidations.increment();
+				return entry.toResponse();
+			}
+			return response;
+		}
+		String cacheControl = response.getHeader("Cache-Control");
+		boolean noStore = cacheControl != null && cacheControl.toLowerCase().contains("no-store");
+		if (response.getStatusCode() == 200 && !noStore) {
+			Entry entry = new Entry(response);
+			synchronized (entries) {
+				entries.put(key, entry);
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * This method drops every cached response. The counters are kept.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return {@link Long} - requests answered from the cache without a
+	 *         round-trip
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return {@link Long} - requests that had to go to the server
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return {@link Long} - misses the server answered with 304 Not Modified
+	 */
+	public long getRevalidations() {
+		return revalidations.sum();
+	}
+
+	/**
+	 * @return {@link Integer} - number of cached responses
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	// Every request of a run usually carries the same token, so the hash of the
+	// last header seen is kept and only a new token is digested again
+	private static String hash(String value) {
+		HashedHeader last = lastHashed;
+		if (last != null && last.value.equals(value)) {
+			return last.hash;
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+			char[] hex = new char[32];
+			for (int i = 0; i < 16; i++) {
+				hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+				hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+			}
+			HashedHeader hashed = new HashedHeader(value, new String(hex));
+			lastHashed = hashed;
+			return hashed.hash;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	// Header and hash in one object, so a reader never pairs one with the
+	// other's counterpart
+	private static class HashedHeader {
+		private final String value;
+		private final String hash;
+
+		private HashedHeader(String value, String hash) {
+			this.value = value;
+			this.hash = hash;
+		}
+	}
+
+	private static class Entry {
+		private final int statusCode;
+		private final String statusLine;
+		private final Headers headers;
+		private final String contentType;
+		private final byte[] body;
+		private final String etag;
+		private final String lastModified;
+		private volatile long storedAt;
+
+		private Entry(Response response) {
+			this.statusCode = response.getStatusCode();
+			this.statusLine = response.getStatusLine();
+			this.headers = response.getHeaders();
+			this.contentType = response.getContentType();
+			this.body = response.asByteArray();
+			this.etag = response.getHeader("ETag");
+			this.lastModified = response.getHeader("Last-Modified");
+			this.storedAt = System.currentTimeMillis();
+		}
+
+		private Response toResponse() {
+			ResponseBuilder builder = new ResponseBuilder().setStatusCode(statusCode).setStatusLine(statusLine)
+					.setHeaders(headers).setBody(body);
+			if (contentType != null && !contentType.isEmpty()) {
+				builder.setContentType(contentType);
+			}
+			return builder.build();
+		}
+	}
+}
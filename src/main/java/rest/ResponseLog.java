@@ -0,0 +1,132 @@
+package rest;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import coreUtilities.utils.Log;
+import io.restassured.response.Response;
+import restConfig.ConfigManager;
+
+/**
+ * Decides when response bodies are turned into text and printed.
+ *
+ * response.print selects the mode used by print() and prettyPrint() of the
+ * responses returned by {@link CustomResponse#getResponse()}:
+ *
+ * <pre>
+ * always    - print right away, like Rest Assured does
+ * onFailure - print nothing; the responses a test received are printed,
+ *             pretty, only when the test fails (default)
+ * debug     - log through Log.debug, formatted only when debug is enabled
+ * never     - print nothing
+ * </pre>
+ *
+ * In every mode print() and prettyPrint() still return the body, but only
+ * "always" and an enabled debug log pay for indenting it. For onFailure the
+ * test listener brackets each test with {@link #testStarted()} and
+ * {@link #testFailed(String)} or {@link #testFinished()}; the last
+ * response.print.keep (default 5) responses seen on the test thread are
+ * remembered in between.
+ */
+public class ResponseLog {
+
+	private enum Mode {
+		ALWAYS, ON_FAILURE, DEBUG, NEVER
+	}
+
+	private static final Mode MODE = parseMode(ConfigManager.getProperty("response.print", "onFailure"));
+
+	private static final int KEEP = Integer.parseInt(ConfigManager.getProperty("response.print.keep", "5"));
+
+	private static final ThreadLocal<Deque<LazyResponse>> RECEIVED = new ThreadLocal<>();
+
+	/**
+	 * This method starts remembering the responses seen on the calling thread.
+	 */
+	public static void testStarted() {
+		if (MODE == Mode.ON_FAILURE && KEEP > 0) {
+			RECEIVED.set(new ArrayDeque<>(KEEP));
+		}
+	}
+
+	/**
+	 * This method prints the responses the failed test received, pretty, and
+	 * stops remembering.
+	 *
+	 * @param testName - name of the failed test
+	 */
+	public static void testFailed(String testName) {
+		Deque<LazyResponse> received = RECEIVED.get();
+		RECEIVED.remove();
+		if (received == null || received.isEmpty()) {
+			return;
+		}
+		StringBuilder dump = new StringBuilder("Responses received by ").append(testName).append(':');
+		for (LazyResponse response : received) {
+			dump.append(System.lineSeparator()).append(response.getStatusLine()).append(System.lineSeparator())
+					.append(response.bodyAsPrettyString());
+		}
+		System.out.println(dump);
+	}
+
+	/**
+	 * This method forgets the responses of a test that passed or was skipped.
+	 */
+	public static void testFinished() {
+		RECEIVED.remove();
+	}
+
+	/**
+	 * This method remembers a response for {@link #testFailed(String)} when the
+	 * calling thread runs a test. Responses already remembered are skipped.
+	 *
+	 * @param response - a response returned by CustomResponse.getResponse()
+	 */
+	static void seen(Response response) {
+		Deque<LazyResponse> received = RECEIVED.get();
+		LazyResponse lazy = LazyResponse.handlerOf(response);
+		if (received == null || lazy == null) {
+			return;
+		}
+		for (LazyResponse remembered : received) {
+			if (remembered == lazy) {
+				return;
+			}
+		}
+		if (received.size() == KEEP) {
+			received.removeFirst();
+		}
+		received.addLast(lazy);
+	}
+
+	static String print(LazyResponse response, boolean pretty) {
+		switch (MODE) {
+		case ALWAYS:
+			String text = pretty ? response.bodyAsPrettyString() : response.bodyAsString();
+			System.out.println(text);
+			return text;
+		case DEBUG:
+			if (Log.isDebugEnabled()) {
+				String logged = pretty ? response.bodyAsPrettyString() : response.bodyAsString();
+				Log.debug(logged);
+				return logged;
+			}
+			return response.bodyAsString();
+		default:
+			return response.bodyAsString();
+		}
+	}
+
+	private static Mode parseMode(String value) {
+		switch (value.trim().toLowerCase()) {
+		case "always":
+			return Mode.ALWAYS;
+		case "debug":
+			return Mode.DEBUG;
+		case "never":
+			return Mode.NEVER;
+		default:
+			return Mode.ON_FAILURE;
+		}
+	}
+}
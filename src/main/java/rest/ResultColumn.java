@@ -0,0 +1,394 @@
+package rest;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * One column of extracted response values, stored without per-value boxing.
+ *
+ * The storage type is chosen from the values appended: whole numbers go into
+ * an int[] (widened to long[] when needed), decimals into a double[] and
+ * strings are dictionary encoded, so a column of repeated names holds each
+ * distinct String once. A column that mixes kinds falls back to Object[] so
+ * the boxed values handed out are always the ones the JSON parser produced;
+ * in a long[] column the values that fit an int are handed out as Integer,
+ * as the parser gives Long only to the others.
+ *
+ * Columns are filled by {@link JsonFieldExtractor} and are read-only once the
+ * extraction has finished.
+ */
+public class ResultColumn {
+
+	private enum Type {
+		EMPTY, INT, LONG, DOUBLE, STRING, OBJECT
+	}
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Type type = Type.EMPTY;
+	private int size;
+	private BitSet nulls;
+	private BitSet absent;
+
+	private int[] ints;
+	private long[] longs;
+	private double[] doubles;
+	private Object[] objects;
+	private List<String> dictionary;
+	private Map<String, Integer> dictionaryIndex;
+
+	ResultColumn() {
+	}
+
+	/**
+	 * @return {@link Integer} - number of values (including nulls) in the
+	 *         column
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link Boolean} - true when the value is JSON null or the field was
+	 *         missing
+	 */
+	public boolean isNull(int index) {
+		checkIndex(index);
+		return type == Type.EMPTY || (nulls != null && nulls.get(index));
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link Boolean} - true when the row did not contain the field at all
+	 */
+	public boolean isAbsent(int index) {
+		checkIndex(index);
+		return absent != null && absent.get(index);
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link Integer} - the value as a primitive int
+	 */
+	public int getInt(int index) {
+		checkNotNull(index);
+		switch (type) {
+		case INT:
+			return ints[index];
+		case LONG:
+			return Math.toIntExact(longs[index]);
+		default:
+			return ((Number) get(index)).intValue();
+		}
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link Long} - the value as a primitive long
+	 */
+	public long getLong(int index) {
+		checkNotNull(index);
+		switch (type) {
+		case INT:
+			return ints[index];
+		case LONG:
+			return longs[index];
+		default:
+			return ((Number) get(index)).longValue();
+		}
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link Double} - the value as a primitive double
+	 */
+	public double getDouble(int index) {
+		checkNotNull(index);
+		switch (type) {
+		case INT:
+			return ints[index];
+		case LONG:
+			return longs[index];
+		case DOUBLE:
+			return doubles[index];
+		default:
+			return ((Number) get(index)).doubleValue();
+		}
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link String} - the value as a String, or null
+	 */
+	public String getString(int index) {
+		if (isNull(index)) {
+			return null;
+		}
+		if (type == Type.STRING) {
+			return dictionary.get(ints[index]);
+		}
+		return String.valueOf(get(index));
+	}
+
+	/**
+	 * @param index - row index
+	 * @return {@link Object} - the boxed value (Integer, Long, Double, String,
+	 *         Boolean, Map or List), or null
+	 */
+	public Object get(int index) {
+		if (isNull(index)) {
+			return null;
+		}
+		switch (type) {
+		case INT:
+			return ints[index];
+		case LONG:
+			long value = longs[index];
+			return value == (int) value ? (Object) Integer.valueOf((int) value) : Long.valueOf(value);
+		case DOUBLE:
+			return doubles[index];
+		case STRING:
+			return dictionary.get(ints[index]);
+		default:
+			return objects[index];
+		}
+	}
+
+	/**
+	 * @return {@link List} - a read-only view of the column; values are boxed on
+	 *         access rather than stored boxed
+	 */
+	public List<Object> asList() {
+		return new ColumnView();
+	}
+
+	void appendNull() {
+		markNull(size);
+		if (type != Type.EMPTY) {
+			ensureCapacity(size + 1);
+		}
+		size++;
+	}
+
+	void appendMissing() {
+		if (absent == null) {
+			absent = new BitSet();
+		}
+		absent.set(size);
+		appendNull();
+	}
+
+	void appendInt(int value) {
+		if (type == Type.EMPTY) {
+			switchTo(Type.INT);
+		}
+		if (type == Type.INT) {
+			ensureCapacity(size + 1);
+			ints[size++] = value;
+		} else if (type == Type.LONG) {
+			appendLong(value);
+		} else {
+			appendObject(Integer.valueOf(value));
+		}
+	}
+
+	void appendLong(long value) {
+		if (type == Type.EMPTY || type == Type.INT) {
+			switchTo(Type.LONG);
+		}
+		if (type == Type.LONG) {
+			ensureCapacity(size + 1);
+			longs[size++] = value;
+		} else {
+			appendObject(Long.valueOf(value));
+		}
+	}
+
+	void appendDouble(double value) {
+		if (type == Type.EMPTY) {
+			switchTo(Type.DOUBLE);
+		}
+		if (type == Type.DOUBLE) {
+			ensureCapacity(size + 1);
+			doubles[size++] = value;
+		} else {
+			appendObject(Double.valueOf(value));
+		}
+	}
+
+	void appendString(String value) {
+		if (type == Type.EMPTY) {
+			switchTo(Type.STRING);
+		}
+		if (type == Type.STRING) {
+			Integer code = dictionaryIndex.get(value);
+			if (code == null) {
+				code = dictionary.size();
+				dictionary.add(value);
+				dictionaryIndex.put(value, code);
+			}
+			ensureCapacity(size + 1);
+			ints[size++] = code;
+		} else {
+			appendObject(value);
+		}
+	}
+
+	void append(Object value) {
+		if (value == null) {
+			appendNull();
+		} else if (value instanceof Integer) {
+			appendInt((Integer) value);
+		} else if (value instanceof Long) {
+			appendLong((Long) value);
+		} else if (value instanceof Double) {
+			appendDouble((Double) value);
+		} else if (value instanceof String) {
+			appendString((String) value);
+		} else {
+			appendObject(value);
+		}
+	}
+
+	// Releases build-time state and trims the backing arrays to the column size
+	void seal() {
+		dictionaryIndex = null;
+		switch (type) {
+		case INT:
+		case STRING:
+			ints = Arrays.copyOf(ints, size);
+			break;
+		case LONG:
+			longs = Arrays.copyOf(longs, size);
+			break;
+		case DOUBLE:
+			doubles = Arrays.copyOf(doubles, size);
+			break;
+		case OBJECT:
+			objects = Arrays.copyOf(objects, size);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void appendObject(Object value) {
+		if (type != Type.OBJECT) {
+			switchTo(Type.OBJECT);
+		}
+		ensureCapacity(size + 1);
+		objects[size++] = value;
+	}
+
+	// Converts the values appended so far into the representation of the new
+	// type
+	private void switchTo(Type newType) {
+		int capacity = Math.max(INITIAL_CAPACITY, size + 1);
+		if (newType == Type.OBJECT) {
+			Object[] boxed = new Object[capacity];
+			for (int i = 0; i < size; i++) {
+				boxed[i] = get(i);
+			}
+			objects = boxed;
+		} else if (newType == Type.LONG && type == Type.INT) {
+			longs = new long[capacity];
+			for (int i = 0; i < size; i++) {
+				longs[i] = ints[i];
+			}
+		} else if (newType == Type.LONG) {
+			longs = new long[capacity];
+		} else if (newType == Type.DOUBLE) {
+			doubles = new double[capacity];
+		} else {
+			ints = new int[capacity];
+			if (newType == Type.STRING) {
+				dictionary = new ArrayList<>();
+				dictionaryIndex = new HashMap<>();
+			}
+		}
+		if (newType != Type.STRING) {
+			dictionary = null;
+			dictionaryIndex = null;
+		}
+		if (newType != Type.INT && newType != Type.STRING) {
+			ints = null;
+		}
+		if (newType != Type.LONG) {
+			longs = null;
+		}
+		if (newType != Type.DOUBLE) {
+			doubles = null;
+		}
+		type = newType;
+	}
+
+	private void ensureCapacity(int capacity) {
+		switch (type) {
+		case INT:
+		case STRING:
+			if (ints.length < capacity) {
+				ints = Arrays.copyOf(ints, grow(ints.length, capacity));
+			}
+			break;
+		case LONG:
+			if (longs.length < capacity) {
+				longs = Arrays.copyOf(longs, grow(longs.length, capacity));
+			}
+			break;
+		case DOUBLE:
+			if (doubles.length < capacity) {
+				doubles = Arrays.copyOf(doubles, grow(doubles.length, capacity));
+			}
+			break;
+		case OBJECT:
+			if (objects.length < capacity) {
+				objects = Arrays.copyOf(objects, grow(objects.length, capacity));
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static int grow(int current, int required) {
+		return Math.max(required, current + (current >> 1));
+	}
+
+	private void markNull(int index) {
+		if (nulls == null) {
+			nulls = new BitSet();
+		}
+		nulls.set(index);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private void checkNotNull(int index) {
+		if (isNull(index)) {
+			throw new NullPointerException("Value at index " + index + " is null");
+		}
+	}
+
+	private class ColumnView extends AbstractList<Object> implements RandomAccess {
+		@Override
+		public Object get(int index) {
+			return ResultColumn.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package rest;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Columnar result set: a list of named {@link ResultColumn}s of equal length.
+ *
+ * Rows are not stored as objects. {@link #getRow(int)} and {@link #asMaps()}
+ * return lightweight views that read through to the columns, so a response
+ * with thousands of rows does not allocate a map per row unless the caller
+ * actually walks them.
+ */
+public class ResultTable {
+
+	private final List<String> names = new ArrayList<>();
+	private final List<ResultColumn> columns = new ArrayList<>();
+	private final Map<String, Integer> positions = new HashMap<>();
+	private int rowCount;
+
+	ResultTable() {
+	}
+
+	/**
+	 * @param names   - column names, in position order
+	 * @param columns - columns of equal length, in the same order
+	 */
+	ResultTable(List<String> names, List<ResultColumn> columns) {
+		for (int i = 0; i < names.size(); i++) {
+			addColumn(names.get(i), columns.get(i));
+		}
+		rowCount = columns.isEmpty() ? 0 : columns.get(0).size();
+	}
+
+	/**
+	 * @return {@link Integer} - number of rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return {@link Integer} - number of columns
+	 */
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	/**
+	 * @return {@link List} - column names in position order
+	 */
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * @param position - zero based column position
+	 * @return {@link ResultColumn} - the column at the given position
+	 */
+	public ResultColumn getColumn(int position) {
+		return columns.get(position);
+	}
+
+	/**
+	 * @param name - column name
+	 * @return {@link ResultColumn} - the named column, or null when the table has
+	 *         no such column
+	 */
+	public ResultColumn getColumn(String name) {
+		Integer position = positions.get(name);
+		return position == null ? null : columns.get(position);
+	}
+
+	/**
+	 * @param index - zero based row index
+	 * @return {@link Row} - a view of the row
+	 */
+	public Row getRow(int index) {
+		if (index < 0 || index >= rowCount) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + rowCount);
+		}
+		return new Row(index);
+	}
+
+	/**
+	 * @return {@link List} - a read-only view of the rows as maps, in the shape
+	 *         response.jsonPath().getList(...) returns them
+	 */
+	public List<Map<String, Object>> asMaps() {
+		return new RowList();
+	}
+
+	// Returns the named column, creating it back-filled with missing values
+	// when it is first seen part way through the rows
+	ResultColumn column(String name) {
+		ResultColumn column = getColumn(name);
+		if (column == null) {
+			column = new ResultColumn();
+			for (int i = 0; i < rowCount; i++) {
+				column.appendMissing();
+			}
+			addColumn(name, column);
+		}
+		return column;
+	}
+
+	// Completes the current row, marking every column it did not set as missing
+	void endRow() {
+		rowCount++;
+		for (ResultColumn column : columns) {
+			if (column.size() < rowCount) {
+				column.appendMissing();
+			}
+		}
+	}
+
+	void seal() {
+		for (ResultColumn column : columns) {
+			column.seal();
+		}
+	}
+
+	private void addColumn(String name, ResultColumn column) {
+		positions.put(name, columns.size());
+		names.add(name);
+		columns.add(column);
+	}
+
+	/**
+	 * View of a single row of a {@link ResultTable}.
+	 */
+	public class Row {
+		private final int index;
+
+		private Row(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * @return {@link Integer} - the row index
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @param name - column name
+		 * @return {@link Object} - the boxed value, or null when null or missing
+		 */
+		public Object get(String name) {
+			ResultColumn column = getColumn(name);
+			return column == null ? null : column.get(index);
+		}
+
+		/**
+		 * @param name - column name
+		 * @return {@link String} - the value as a String, or null
+		 */
+		public String getString(String name) {
+			ResultColumn column = getColumn(name);
+			return column == null ? null : column.getString(index);
+		}
+
+		/**
+		 * @param name - column name
+		 * @return {@link Integer} - the value as a primitive int
+		 */
+		public int getInt(String name) {
+			return requireColumn(name).getInt(index);
+		}
+
+		/**
+		 * @param name - column name
+		 * @return {@link Long} - the value as a primitive long
+		 */
+		public long getLong(String name) {
+			return requireColumn(name).getLong(index);
+		}
+
+		/**
+		 * @param name - column name
+		 * @return {@link Double} - the value as a primitive double
+		 */
+		public double getDouble(String name) {
+			return requireColumn(name).getDouble(index);
+		}
+
+		/**
+		 * @param name - column name
+		 * @return {@link Boolean} - true when the row has the field, even if null
+		 */
+		public boolean has(String name) {
+			ResultColumn column = getColumn(name);
+			return column != null && !column.isAbsent(index);
+		}
+
+		/**
+		 * @return {@link Map} - a read-only map view of the row, without the fields
+		 *         the row did not contain
+		 */
+		public Map<String, Object> asMap() {
+			return new RowMap(index);
+		}
+
+		private ResultColumn requireColumn(String name) {
+			ResultColumn column = getColumn(name);
+			if (column == null) {
+				throw new IllegalArgumentException("No such column: " + name);
+			}
+			return column;
+		}
+	}
+
+	private class RowList extends AbstractList<Map<String, Object>> implements RandomAccess {
+		@Override
+		public Map<String, Object> get(int index) {
+			return getRow(index).asMap();
+		}
+
+		@Override
+		public int size() {
+			return rowCount;
+		}
+	}
+
+	private class RowMap extends AbstractMap<String, Object> {
+		private final int index;
+
+		private RowMap(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public Object get(Object key) {
+			ResultColumn column = getColumn(String.valueOf(key));
+			return column == null ? null : column.get(index);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			ResultColumn column = getColumn(String.valueOf(key));
+			return column != null && !column.isAbsent(index);
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new EntryIterator(index);
+				}
+
+				@Override
+				public int size() {
+					int size = 0;
+					for (ResultColumn column : columns) {
+						if (!column.isAbsent(index)) {
+							size++;
+						}
+					}
+					return size;
+				}
+			};
+		}
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		private final int index;
+		private int next = -1;
+
+		private EntryIterator(int index) {
+			this.index = index;
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < columns.size();
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<>(names.get(next),
+					columns.get(next).get(index));
+			advance();
+			return entry;
+		}
+
+		private void advance() {
+			do {
+				next++;
+			} while (next < columns.size() && columns.get(next).isAbsent(index));
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package rest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one.
+ *
+ * The first caller for a key runs the call; everyone asking for the same key
+ * while it is in flight waits for that call and gets its result, or its
+ * failure. The key is forgotten as soon as the call completes, so nothing is
+ * cached: a caller arriving afterwards starts a new call.
+ *
+ * @param <K> - key identifying identical calls
+ * @param <V> - result of a call
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * This method runs a blocking call on the calling thread, unless an
+	 * identical one is already running, in which case it waits for that one.
+	 *
+	 * @param key  - identifies identical calls
+	 * @param call - the call to run when none is in flight for the key
+	 * @return the result of the call that ran
+	 * @throws RuntimeException the failure of the call that ran
+	 */
+	public V call(K key, Supplier<V> call) {
+		CompletableFuture<V> own = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+		if (running != null) {
+			coalesced.increment();
+			return await(running);
+		}
+		calls.increment();
+		try {
+			V result = call.get();
+			own.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			own.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, own);
+		}
+	}
+
+	/**
+	 * Non-blocking variant of {@link #call(Object, Supplier)}: every caller of a
+	 * key gets the future of the call started by the first one.
+	 *
+	 * @param key  - identifies identical calls
+	 * @param call - starts the call when none is in flight for the key
+	 * @return {@link CompletableFuture} - completes with the result of the call
+	 *         that ran
+	 */
+	public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+		CompletableFuture<V> own = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+		if (running != null) {
+			coalesced.increment();
+			return running;
+		}
+		calls.increment();
+		CompletableFuture<V> started;
+		try {
+			started = call.get();
+		} catch (RuntimeException | Error e) {
+			inFlight.remove(key, own);
+			own.completeExceptionally(e);
+			return own;
+		}
+		started.whenComplete((result, failure) -> {
+			inFlight.remove(key, own);
+			if (failure != null) {
+				own.completeExceptionally(failure);
+			} else {
+				own.complete(result);
+			}
+		});
+		return own;
+	}
+
+	/**
+	 * @param key - a key
+	 * @return {@link Boolean} - true when a call for the key is running
+	 */
+	public boolean isInFlight(K key) {
+		return inFlight.containsKey(key);
+	}
+
+	/**
+	 * @return {@link Long} - calls that actually ran
+	 */
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	/**
+	 * @return {@link Long} - callers served by a call another caller started
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	private static <V> V await(CompletableFuture<V> running) {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+}
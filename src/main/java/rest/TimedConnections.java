@@ -0,0 +1,252 @@
+package rest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * Hooks into the blocking HTTP client that report the phases of a request to
+ * the {@link RequestTiming} opened by {@link TimingFilter} on the calling
+ * thread, plus the response compression negotiated through
+ * {@link ContentEncodings}. Timing is skipped for requests made without that
+ * filter.
+ */
+@SuppressWarnings("deprecation") // hooks into the AbstractHttpClient RestAssured requires, see ApiClient
+class TimedConnections {
+
+	/**
+	 * @return {@link SchemeRegistry} - http and https with the default socket
+	 *         factories, timing the TCP connect and the TLS handshake separately
+	 */
+	static SchemeRegistry schemeRegistry() {
+		SchemeRegistry registry = new SchemeRegistry();
+		registry.register(new Scheme("http", 80, new TimedSocketFactory(PlainSocketFactory.getSocketFactory())));
+		registry.register(new Scheme("https", 443, new TimedLayeredSocketFactory(SSLSocketFactory.getSocketFactory())));
+		return registry;
+	}
+
+	/**
+	 * @return {@link DnsResolver} - the system resolver, timed
+	 */
+	static DnsResolver dnsResolver() {
+		return host -> {
+			long start = System.nanoTime();
+			try {
+				return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+			} finally {
+				RequestTiming timing = RequestTiming.current();
+				if (timing != null) {
+					timing.addDns(System.nanoTime() - start);
+				}
+			}
+		};
+	}
+
+	/**
+	 * @return {@link HttpRequestExecutor} - an executor noting when the response
+	 *         head arrives and counting the body bytes read off the wire. It also
+	 *         sets Accept-Encoding and decodes Brotli bodies, see
+	 *         {@link ContentEncodings}.
+	 */
+	static HttpRequestExecutor requestExecutor() {
+		return new HttpRequestExecutor() {
+			// Runs after every request interceptor, so this header is the one sent
+			@Override
+			protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+					throws IOException, HttpException {
+				String acceptEncoding = ContentEncodings.acceptEncoding();
+				if (acceptEncoding.isEmpty()) {
+					request.removeHeaders(HttpHeaders.ACCEPT_ENCODING);
+				} else {
+					request.setHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+				}
+				return super.doSendRequest(request, conn, context);
+			}
+
+			// Runs before every response interceptor, so the gzip and deflate
+			// decoders of the client see a Brotli body already decoded
+			@Override
+			protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn,
+					HttpContext context) throws HttpException, IOException {
+				HttpResponse response = super.doReceiveResponse(request, conn, context);
+				RequestTiming timing = RequestTiming.current();
+				if (timing != null) {
+					timing.firstByte();
+				}
+				HttpEntity entity = response.getEntity();
+				if (entity != null) {
+					if (timing != null) {
+						entity = new CountingEntity(entity, timing);
+					}
+					Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+					if (contentEncoding != null && ContentEncodings.needsDecoding(contentEncoding.getValue())) {
+						entity = new DecodingEntity(entity, contentEncoding.getValue());
+						response.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+						response.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+					}
+					response.setEntity(entity);
+				}
+				return response;
+			}
+		};
+	}
+
+	// Counts the bytes as received, before any decoding
+	private static class CountingEntity extends HttpEntityWrapper {
+		private final RequestTiming timing;
+
+		private CountingEntity(HttpEntity wrapped, RequestTiming timing) {
+			super(wrapped);
+			this.timing = timing;
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			return new FilterInputStream(super.getContent()) {
+				@Override
+				public int read() throws IOException {
+					int value = super.read();
+					if (value >= 0) {
+						timing.addWireBytes(1);
+					}
+					return value;
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) throws IOException {
+					int count = super.read(buffer, offset, length);
+					if (count > 0) {
+						timing.addWireBytes(count);
+					}
+					return count;
+				}
+			};
+		}
+	}
+
+	private static class DecodingEntity extends HttpEntityWrapper {
+		private final String contentEncoding;
+
+		private DecodingEntity(HttpEntity wrapped, String contentEncoding) {
+			super(wrapped);
+			this.contentEncoding = contentEncoding;
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			return ContentEncodings.decode(contentEncoding, super.getContent());
+		}
+
+		@Override
+		public long getContentLength() {
+			return -1;
+		}
+
+		@Override
+		public Header getContentEncoding() {
+			return null;
+		}
+	}
+
+	private static class TimedSocketFactory implements SchemeSocketFactory {
+		private final SchemeSocketFactory delegate;
+
+		private TimedSocketFactory(SchemeSocketFactory delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Socket createSocket(HttpParams params) throws IOException {
+			return delegate.createSocket(params);
+		}
+
+		@Override
+		public Socket connectSocket(Socket sock, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+				HttpParams params) throws IOException, UnknownHostException, ConnectTimeoutException {
+			long start = System.nanoTime();
+			try {
+				return delegate.connectSocket(sock, remoteAddress, localAddress, params);
+			} finally {
+				RequestTiming timing = RequestTiming.current();
+				if (timing != null) {
+					timing.addConnect(System.nanoTime() - start);
+				}
+			}
+		}
+
+		@Override
+		public boolean isSecure(Socket sock) throws IllegalArgumentException {
+			return delegate.isSecure(sock);
+		}
+	}
+
+	// The TLS socket factory connects and handshakes in one call; here the
+	// plain connect and the layering on top of it are timed one by one.
+	private static class TimedLayeredSocketFactory extends TimedSocketFactory implements SchemeLayeredSocketFactory {
+		private final SchemeLayeredSocketFactory delegate;
+
+		private TimedLayeredSocketFactory(SchemeLayeredSocketFactory delegate) {
+			super(delegate);
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Socket connectSocket(Socket sock, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+				HttpParams params) throws IOException, UnknownHostException, ConnectTimeoutException {
+			Socket plain = sock != null ? sock : PlainSocketFactory.getSocketFactory().createSocket(params);
+			long start = System.nanoTime();
+			try {
+				plain = PlainSocketFactory.getSocketFactory().connectSocket(plain, remoteAddress, localAddress, params);
+			} finally {
+				RequestTiming timing = RequestTiming.current();
+				if (timing != null) {
+					timing.addConnect(System.nanoTime() - start);
+				}
+			}
+			String host = remoteAddress instanceof HttpInetSocketAddress
+					? ((HttpInetSocketAddress) remoteAddress).getHttpHost().getHostName()
+					: remoteAddress.getHostName();
+			return createLayeredSocket(plain, host, remoteAddress.getPort(), params);
+		}
+
+		@Override
+		public Socket createLayeredSocket(Socket socket, String target, int port, HttpParams params)
+				throws IOException, UnknownHostException {
+			long start = System.nanoTime();
+			try {
+				return delegate.createLayeredSocket(socket, target, port, params);
+			} finally {
+				RequestTiming timing = RequestTiming.current();
+				if (timing != null) {
+					timing.addTls(System.nanoTime() - start);
+				}
+			}
+		}
+	}
+}
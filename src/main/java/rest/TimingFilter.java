@@ -0,0 +1,41 @@
+package rest;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * RestAssured filter timing every blocking ApiUtil request into
+ * {@link RequestMetrics}.
+ *
+ * The filter opens a {@link RequestTiming} for the calling thread, which the
+ * DNS resolver, socket factories and request executor of {@link ApiClient}
+ * fill in while the request runs, and records it once the response body has
+ * been read.
+ */
+public class TimingFilter implements OrderedFilter {
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		RequestTiming timing = RequestTiming.start();
+		try {
+			Response response = ctx.next(requestSpec, responseSpec);
+			timing.finish(response.asByteArray().length);
+			return response;
+		} finally {
+			RequestTiming.clear();
+			RequestMetrics.record(requestSpec.getMethod(), requestSpec.getURI(), timing);
+		}
+	}
+
+	// Inside the response cache, the coalescing filter and the request limiter,
+	// so neither cache hits, shared requests nor time spent waiting for a
+	// permit are counted
+	@Override
+	public int getOrder() {
+		return HIGHEST_PRECEDENCE + 3;
+	}
+}
@@ -0,0 +1,252 @@
+package rest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import coreUtilities.utils.JsonCodec;
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Keeps the bearer token used by every request and renews it before it
+ * expires.
+ *
+ * The expiry is read from the "exp" claim of the JWT. auth.refresh.leadSeconds
+ * (default 60) before that moment a background thread asks the
+ * {@link TokenProvider} for a new token; when that fails the current token is
+ * kept and the refresh is retried every auth.refresh.retrySeconds (default
+ * 30). Tokens without an expiry are never refreshed.
+ *
+ * Reading the header is lock-free: the token and its ready-made Authorization
+ * header live in one immutable object behind a volatile field, so request
+ * threads never wait for a refresh in progress. Only one refresh runs at a
+ * time; a refresh asked for while one is running waits for that one.
+ */
+public class TokenManager {
+
+	private static final ObjectMapper MAPPER = JsonCodec.mapper();
+
+	private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "token-refresher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private static volatile TokenManager defaultManager;
+
+	private final TokenProvider provider;
+	private final long leadMillis;
+	private final long retryMillis;
+	private final SingleFlight<TokenManager, Boolean> refreshing = new SingleFlight<>();
+
+	private volatile Token token;
+	private volatile long nextAttemptAt;
+	private volatile boolean stopped;
+	private ScheduledFuture<?> scheduled;
+
+	/**
+	 * Fetches the first token right away.
+	 *
+	 * @param provider    - where tokens come from
+	 * @param leadMillis  - how long before the expiry a new token is fetched
+	 * @param retryMillis - pause between failed refreshes
+	 * @throws IllegalStateException when the first token cannot be fetched
+	 */
+	public TokenManager(TokenProvider provider, long leadMillis, long retryMillis) {
+		this.provider = provider;
+		this.leadMillis = leadMillis;
+		this.retryMillis = retryMillis;
+		try {
+			this.token = new Token(provider.fetchToken());
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not obtain a bearer token", e);
+		}
+		warnIfExpired(token);
+		planNext(token.expiresAt == Long.MAX_VALUE ? Long.MAX_VALUE : token.expiresAt - leadMillis);
+	}
+
+	/**
+	 * @return {@link TokenManager} - the manager behind {@link AuthUtil}, created
+	 *         on first use with the auth.token.provider and auth.refresh.*
+	 *         settings
+	 */
+	public static TokenManager getDefault() {
+		TokenManager manager = defaultManager;
+		if (manager == null) {
+			synchronized (TokenManager.class) {
+				manager = defaultManager;
+				if (manager == null) {
+					manager = new TokenManager(createProvider(),
+							TimeUnit.SECONDS.toMillis(ApiClient.intProperty("auth.refresh.leadSeconds", 60)),
+							TimeUnit.SECONDS.toMillis(ApiClient.intProperty("auth.refresh.retrySeconds", 30)));
+					defaultManager = manager;
+				}
+			}
+		}
+		return manager;
+	}
+
+	/**
+	 * This method replaces the manager behind {@link AuthUtil}, e.g. with one
+	 * fed by a stub provider in tests. Background refreshes of the previous
+	 * manager are stopped.
+	 *
+	 * @param manager - the new default manager
+	 */
+	public static synchronized void setDefault(TokenManager manager) {
+		TokenManager previous = defaultManager;
+		defaultManager = manager;
+		if (previous != null && previous != manager) {
+			previous.stop();
+		}
+	}
+
+	/**
+	 * @return {@link String} - "Bearer " followed by the current token
+	 */
+	public String getAuthHeader() {
+		Token current = token;
+		if (System.currentTimeMillis() >= nextAttemptAt) {
+			// The scheduled refresh is late, e.g. after the machine slept
+			triggerRefresh();
+		}
+		return current.header;
+	}
+
+	/**
+	 * @return {@link String} - the current token
+	 */
+	public String getToken() {
+		return token.value;
+	}
+
+	/**
+	 * @return {@link Long} - expiry of the current token in epoch
+	 *         milliseconds, Long.MAX_VALUE when it has none
+	 */
+	public long getExpiresAt() {
+		return token.expiresAt;
+	}
+
+	/**
+	 * This method fetches a new token on the calling thread, e.g. after the
+	 * server rejected the current one. When a refresh is already running it
+	 * waits for that one instead of fetching another token. Callers reading
+	 * the header meanwhile keep getting the current token.
+	 *
+	 * @return {@link Boolean} - true when a new token was obtained
+	 */
+	public boolean refreshNow() {
+		return refreshing.call(this, this::refresh);
+	}
+
+	private void triggerRefresh() {
+		if (!stopped) {
+			refreshing.execute(this, () -> CompletableFuture.supplyAsync(this::refresh, REFRESHER));
+		}
+	}
+
+	private boolean refresh() {
+		try {
+			Token next = new Token(provider.fetchToken());
+			Token previous = token;
+			token = next;
+			if (!next.value.equals(previous.value)) {
+				warnIfExpired(next);
+			}
+			long refreshAt = next.expiresAt == Long.MAX_VALUE ? Long.MAX_VALUE : next.expiresAt - leadMillis;
+			planNext(Math.max(refreshAt, System.currentTimeMillis() + retryMillis));
+			return true;
+		} catch (Exception e) {
+			Log.warn("Could not refresh the bearer token, retrying in {} ms: {}", retryMillis, e);
+			planNext(System.currentTimeMillis() + retryMillis);
+			return false;
+		}
+	}
+
+	// A refresh still running when the manager is stopped must not plan another
+	private synchronized void planNext(long at) {
+		if (stopped) {
+			return;
+		}
+		nextAttemptAt = at;
+		if (scheduled != null) {
+			scheduled.cancel(false);
+			scheduled = null;
+		}
+		if (at != Long.MAX_VALUE) {
+			scheduled = REFRESHER.schedule(this::triggerRefresh, Math.max(0, at - System.currentTimeMillis()),
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// Ends background refreshes; the current token stays readable
+	synchronized void stop() {
+		stopped = true;
+		nextAttemptAt = Long.MAX_VALUE;
+		if (scheduled != null) {
+			scheduled.cancel(false);
+			scheduled = null;
+		}
+	}
+
+	private static void warnIfExpired(Token token) {
+		if (token.expiresAt <= System.currentTimeMillis()) {
+			Log.warn("The bearer token expired at {}", Instant.ofEpochMilli(token.expiresAt));
+		}
+	}
+
+	private static TokenProvider createProvider() {
+		String className = ConfigManager.getProperty("auth.token.provider", "").trim();
+		if (className.isEmpty()) {
+			return TokenProvider.fromConfig();
+		}
+		try {
+			return (TokenProvider) Class.forName(className).getConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalStateException("auth.token.provider " + className + " is not a usable TokenProvider", e);
+		}
+	}
+
+	/**
+	 * @param token - a bearer token
+	 * @return {@link Long} - the "exp" claim in epoch milliseconds, or
+	 *         Long.MAX_VALUE when the token is not a JWT or has no expiry
+	 */
+	static long expiryOf(String token) {
+		String[] parts = token.split("\\.");
+		if (parts.length < 2) {
+			return Long.MAX_VALUE;
+		}
+		try {
+			JsonNode claims = MAPPER
+					.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+			JsonNode exp = claims == null ? null : claims.get("exp");
+			return exp != null && exp.canConvertToLong() ? TimeUnit.SECONDS.toMillis(exp.asLong()) : Long.MAX_VALUE;
+		} catch (IllegalArgumentException | IOException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private static class Token {
+		private final String value;
+		private final String header;
+		private final long expiresAt;
+
+		private Token(String value) {
+			this.value = value;
+			this.header = "Bearer " + value;
+			this.expiresAt = expiryOf(value);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package rest;
+
+import restConfig.ConfigManager;
+
+/**
+ * Source of bearer tokens for {@link TokenManager}, e.g. a login call or a
+ * local stub in tests. Set auth.token.provider to the name of an
+ * implementation with a public no-argument constructor to use it by default.
+ */
+@FunctionalInterface
+public interface TokenProvider {
+
+	/**
+	 * @return {@link String} - a bearer token, without the "Bearer " prefix
+	 * @throws Exception when no token could be obtained; the manager keeps the
+	 *                   current token and tries again later
+	 */
+	String fetchToken() throws Exception;
+
+	/**
+	 * @return {@link TokenProvider} - the provider reading auth.bearer.token
+	 *         from the configuration, used when auth.token.provider is not set
+	 */
+	static TokenProvider fromConfig() {
+		return () -> {
+			String token = ConfigManager.getProperty("auth.bearer.token");
+			if (token == null || token.trim().isEmpty()) {
+				throw new IllegalStateException("auth.bearer.token is not set");
+			}
+			return token.trim();
+		};
+	}
+}
@@ -1,22 +1,269 @@
 package restConfig;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import coreUtilities.utils.ExcelDataProvider;
+import coreUtilities.utils.Log;
+
+/**
+ * Layered configuration, resolved into immutable {@link ConfigSnapshot}s.
+ *
+ * Layers, each overriding the ones before it:
+ *
+ * <pre>
+ * properties - config.properties (the config.file system property or CONFIG_FILE
+ *              variable, default src/main/resources/config.properties, else the
+ *              classpath resource)
+ * excel      - key/value rows of the config.excel.sheet sheet (default "config")
+ *              of config.excel.file (default src/main/resources/config.xlsx),
+ *              when the workbook has that sheet
+ * env        - environment variables named after a key of the layers above,
+ *              upper-cased with dots as underscores: HTTP_POOL_MAXTOTAL
+ * system     - -Dkey=value system properties, again only for keys of the
+ *              layers above
+ * </pre>
+ *
+ * The snapshot is built once at startup and read without locking. Unless
+ * config.watch is false, a daemon thread watches both files and swaps in a new
+ * snapshot when one of them changes; {@link #addListener(Consumer)} lets
+ * components such as the HTTP client apply changed settings while the JVM
+ * keeps running. A file that cannot be read or parsed during a reload leaves
+ * the previous snapshot in place.
+ */
 public class ConfigManager {
-	private static Properties props = new Properties();
+
+	private static final String PROPERTIES = "properties";
+	private static final String EXCEL = "excel";
+	private static final String ENV = "env";
+	private static final String SYSTEM = "system";
+
+	private static final List<Consumer<ConfigSnapshot>> LISTENERS = new CopyOnWriteArrayList<>();
+
+	private static volatile ConfigSnapshot snapshot = resolve(1);
 
 	static {
+		if (snapshot.getBoolean("config.watch", true)) {
+			startWatcher();
+		}
+	}
+
+	public static String getProperty(String key) {
+		return snapshot.getString(key);
+	}
+
+	public static String getProperty(String key, String defaultValue) {
+		return snapshot.getString(key, defaultValue);
+	}
+
+	/**
+	 * @return {@link ConfigSnapshot} - the current configuration; hold on to it
+	 *         to read several related values consistently
+	 */
+	public static ConfigSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public static int getInt(String key, int defaultValue) {
+		return snapshot.getInt(key, defaultValue);
+	}
+
+	public static long getLong(String key, long defaultValue) {
+		return snapshot.getLong(key, defaultValue);
+	}
+
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		return snapshot.getBoolean(key, defaultValue);
+	}
+
+	/**
+	 * This method registers a callback run after every reload that changed a
+	 * value, on the watcher thread. Use {@link ConfigSnapshot#changed} to react
+	 * to the keys of interest only.
+	 *
+	 * @param listener - receives the new snapshot
+	 */
+	public static void addListener(Consumer<ConfigSnapshot> listener) {
+		LISTENERS.add(listener);
+	}
+
+	/**
+	 * This method resolves all layers again, including system properties set
+	 * since the last load, and swaps the snapshot when a value changed.
+	 *
+	 * @return {@link Boolean} - true when the configuration changed
+	 */
+	public static synchronized boolean reload() {
+		ConfigSnapshot current = snapshot;
+		ConfigSnapshot next;
 		try {
-			FileInputStream fis = new FileInputStream("src/main/resources/config.properties");
-			props.load(fis);
+			next = resolve(current.getVersion() + 1);
+		} catch (RuntimeException e) {
+			Log.warn("Configuration not reloaded, keeping version {}: {}", current.getVersion(), e);
+			return false;
+		}
+		if (next.asMap().equals(current.asMap())) {
+			return false;
+		}
+		snapshot = next;
+		Log.info("Configuration reloaded, version {}", next.getVersion());
+		for (Consumer<ConfigSnapshot> listener : LISTENERS) {
+			try {
+				listener.accept(next);
+			} catch (RuntimeException e) {
+				Log.warn("A configuration listener failed: {}", e);
+			}
+		}
+		return true;
+	}
+
+	private static ConfigSnapshot resolve(long version) {
+		Properties properties = readProperties(propertiesFile());
+		String excelFile = System.getProperty("config.excel.file",
+				properties.getProperty("config.excel.file", "src/main/resources/config.xlsx"));
+		String excelSheet = System.getProperty("config.excel.sheet",
+				properties.getProperty("config.excel.sheet", "config"));
+		Map<String, String> values = new LinkedHashMap<>();
+		Map<String, String> sources = new LinkedHashMap<>();
+		put(values, sources, properties, PROPERTIES);
+		put(values, sources, readExcel(new File(excelFile), excelSheet), EXCEL);
+		Properties env = new Properties();
+		for (String key : values.keySet()) {
+			String value = System.getenv(key.toUpperCase().replace('.', '_').replace('-', '_'));
+			if (value != null) {
+				env.setProperty(key, value);
+			}
+		}
+		put(values, sources, env, ENV);
+		// -Dkey=value lets build profiles tune settings without editing the
+		// file. Only known keys are taken: java.*, os.* and whatever libraries
+		// set at runtime would otherwise count as a change on every reload
+		Properties system = new Properties();
+		for (String key : values.keySet()) {
+			String value = System.getProperty(key);
+			if (value != null) {
+				system.setProperty(key, value);
+			}
+		}
+		put(values, sources, system, SYSTEM);
+		return new ConfigSnapshot(version, values, sources);
+	}
+
+	private static void put(Map<String, String> values, Map<String, String> sources, Properties layer, String name) {
+		for (String key : layer.stringPropertyNames()) {
+			values.put(key, layer.getProperty(key));
+			sources.put(key, name);
+		}
+	}
+
+	private static File propertiesFile() {
+		String path = System.getProperty("config.file", System.getenv("CONFIG_FILE"));
+		return new File(path != null ? path : "src/main/resources/config.properties");
+	}
+
+	private static Properties readProperties(File file) {
+		Properties properties = new Properties();
+		try (InputStream in = file.isFile() ? new FileInputStream(file)
+				: ConfigManager.class.getClassLoader().getResourceAsStream("config.properties")) {
+			if (in == null) {
+				Log.warn("No {} and no config.properties on the classpath, using defaults", file);
+			} else {
+				properties.load(in);
+			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new UncheckedIOException("Could not read " + file, e);
 		}
+		return properties;
 	}
 
-	public static String getProperty(String key) {
-		return props.getProperty(key);
+	private static Properties readExcel(File file, String sheetName) {
+		Properties properties = new Properties();
+		if (!file.isFile()) {
+			return properties;
+		}
+		// Parsed by the streaming reader and cached until the file changes, so a
+		// reload of an unchanged workbook does not read it again
+		Map<String, String> rows;
+		try {
+			rows = ExcelDataProvider.readSheet(file.getPath(), sheetName);
+		} catch (IllegalArgumentException e) {
+			// The workbook has no such sheet
+			return properties;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read " + file, e);
+		}
+		for (Map.Entry<String, String> row : rows.entrySet()) {
+			if (!row.getKey().trim().isEmpty()) {
+				properties.setProperty(row.getKey().trim(), row.getValue());
+			}
+		}
+		return properties;
+	}
+
+	// Watches the directories of both files; a burst of events from one save
+	// leads to a single reload
+	private static void startWatcher() {
+		Set<Path> files = new HashSet<>();
+		files.add(propertiesFile().getAbsoluteFile().toPath().normalize());
+		files.add(new File(snapshot.getString("config.excel.file", "src/main/resources/config.xlsx")).getAbsoluteFile()
+				.toPath().normalize());
+		WatchService watcher;
+		try {
+			watcher = FileSystems.getDefault().newWatchService();
+			Set<Path> directories = new HashSet<>();
+			for (Path file : files) {
+				Path directory = file.getParent();
+				if (directory != null && directory.toFile().isDirectory() && directories.add(directory)) {
+					directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_MODIFY);
+				}
+			}
+		} catch (IOException e) {
+			Log.warn("Configuration files are not watched: {}", e);
+			return;
+		}
+		Thread thread = new Thread(() -> {
+			try {
+				while (true) {
+					WatchKey key = watcher.take();
+					boolean relevant = false;
+					do {
+						Path directory = (Path) key.watchable();
+						for (WatchEvent<?> event : key.pollEvents()) {
+							Object context = event.context();
+							relevant |= context instanceof Path && files.contains(directory.resolve((Path) context));
+						}
+						key.reset();
+						key = watcher.poll(250, TimeUnit.MILLISECONDS);
+					} while (key != null);
+					if (relevant) {
+						reload();
+					}
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				// Stops the watcher
+			}
+		}, "config-watcher");
+		thread.setDaemon(true);
+		thread.start();
 	}
 }
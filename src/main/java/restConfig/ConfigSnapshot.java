@@ -0,0 +1,156 @@
+package restConfig;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable view of the configuration, resolved from all layers at one
+ * moment. Values are looked up in a plain map; typed getters parse on each
+ * call and name the key when a value does not parse.
+ */
+public class ConfigSnapshot {
+
+	private final long version;
+	private final Map<String, String> values;
+	private final Map<String, String> sources;
+
+	ConfigSnapshot(long version, Map<String, String> values, Map<String, String> sources) {
+		this.version = version;
+		this.values = Collections.unmodifiableMap(values);
+		this.sources = Collections.unmodifiableMap(sources);
+	}
+
+	/**
+	 * @return {@link Long} - 1 for the snapshot loaded at startup, incremented
+	 *         with every reload that changed a value
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param key - property name
+	 * @return {@link String} - the value, or null when no layer sets it
+	 */
+	public String getString(String key) {
+		return values.get(key);
+	}
+
+	/**
+	 * @param key          - property name
+	 * @param defaultValue - returned when no layer sets the key
+	 * @return {@link String} - the value
+	 */
+	public String getString(String key, String defaultValue) {
+		String value = values.get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * @param key          - property name
+	 * @param defaultValue - returned when no layer sets the key or it is blank
+	 * @return {@link Integer} - the value
+	 * @throws IllegalArgumentException when the value is not an int
+	 */
+	public int getInt(String key, int defaultValue) {
+		String value = trimmed(key);
+		try {
+			return value == null ? defaultValue : Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw invalid(key, value, "an int", e);
+		}
+	}
+
+	/**
+	 * @param key          - property name
+	 * @param defaultValue - returned when no layer sets the key or it is blank
+	 * @return {@link Long} - the value
+	 * @throws IllegalArgumentException when the value is not a long
+	 */
+	public long getLong(String key, long defaultValue) {
+		String value = trimmed(key);
+		try {
+			return value == null ? defaultValue : Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw invalid(key, value, "a long", e);
+		}
+	}
+
+	/**
+	 * @param key          - property name
+	 * @param defaultValue - returned when no layer sets the key or it is blank
+	 * @return {@link Double} - the value
+	 * @throws IllegalArgumentException when the value is not a number
+	 */
+	public double getDouble(String key, double defaultValue) {
+		String value = trimmed(key);
+		try {
+			return value == null ? defaultValue : Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw invalid(key, value, "a number", e);
+		}
+	}
+
+	/**
+	 * @param key          - property name
+	 * @param defaultValue - returned when no layer sets the key or it is blank
+	 * @return {@link Boolean} - the value
+	 * @throws IllegalArgumentException when the value is neither true nor false
+	 */
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = trimmed(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+			return Boolean.parseBoolean(value);
+		}
+		throw invalid(key, value, "true or false", null);
+	}
+
+	/**
+	 * @param key - property name
+	 * @return {@link String} - the layer the value came from (properties,
+	 *         excel, env or system), or null when no layer sets the key
+	 */
+	public String getSource(String key) {
+		return sources.get(key);
+	}
+
+	/**
+	 * @return {@link Set} - every key set by some layer
+	 */
+	public Set<String> keys() {
+		return values.keySet();
+	}
+
+	/**
+	 * @param other - an earlier snapshot, may be null
+	 * @param key   - property name
+	 * @return {@link Boolean} - true when the key has a different value here
+	 */
+	public boolean changed(ConfigSnapshot other, String key) {
+		String before = other == null ? null : other.getString(key);
+		String after = getString(key);
+		return before == null ? after != null : !before.equals(after);
+	}
+
+	Map<String, String> asMap() {
+		return values;
+	}
+
+	private String trimmed(String key) {
+		String value = values.get(key);
+		if (value == null) {
+			return null;
+		}
+		value = value.trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private IllegalArgumentException invalid(String key, String value, String expected, Exception cause) {
+		return new IllegalArgumentException(
+				key + " must be " + expected + " but is \"" + value + "\" (from " + sources.get(key) + ")", cause);
+	}
+}
@@ -0,0 +1,47 @@
+package coreUtilities.testutils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import coreUtilities.testutils.ResultAggregator.GroupStats;
+import coreUtilities.testutils.ResultAggregator.Outcome;
+
+public class ResultAggregatorTest {
+
+	@Test(description = "Outcomes recorded from many short-lived threads add up per suite and per group")
+	public void countsFromManyThreads() throws Exception {
+		ResultAggregator aggregator = new ResultAggregator();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 200; t++) {
+			Outcome outcome = Outcome.values()[t % 3];
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 50; i++) {
+					aggregator.record(outcome, i, "all", outcome.name());
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(aggregator.getTotal(), 10_000L);
+		Assert.assertEquals(aggregator.getPassed(), 67 * 50L);
+		Assert.assertEquals(aggregator.getFailed(), 67 * 50L);
+		Assert.assertEquals(aggregator.getSkipped(), 66 * 50L);
+		Assert.assertEquals(aggregator.getDurationMillis(), 200 * 1225L);
+
+		Map<String, GroupStats> groups = aggregator.groups();
+		Assert.assertEquals(groups.keySet().toString(), "[FAILED, PASSED, SKIPPED, all]");
+		GroupStats all = groups.get("all");
+		Assert.assertEquals(all.getTotal(), 10_000L);
+		Assert.assertEquals(all.getSkipped(), 66 * 50L);
+		Assert.assertEquals(all.getMaxMillis(), 49L);
+		Assert.assertEquals(groups.get("FAILED").getFailed(), 67 * 50L);
+		Assert.assertEquals(groups.get("FAILED").getPassed(), 0L);
+	}
+}
@@ -0,0 +1,116 @@
+package coreUtilities.testutils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import restConfig.ConfigManager;
+
+public class ResultPublisherTest {
+
+	@Test(description = "A 503 is retried and the result delivered once the endpoint answers 200")
+	public void retriesUntilAccepted() throws Exception {
+		try (ResultsEndpointStub endpoint = new ResultsEndpointStub(503);
+				ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 3, 10)) {
+			publisher.publish(result("first"));
+			Assert.assertTrue(publisher.flush(5000));
+			Assert.assertEquals(endpoint.getReceived().size(), 2, "One failed and one accepted request.");
+			Assert.assertEquals(publisher.getFailedCount(), 0);
+		}
+	}
+
+	@Test(description = "A 4xx answer is not a delivery: it is not retried and stays in the spool")
+	public void keepsRejectedResult() throws Exception {
+		File file = spoolFile();
+		try (ResultsEndpointStub endpoint = new ResultsEndpointStub(400);
+				ResultSpool spool = new ResultSpool(file, 4096);
+				ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 3, 10, spool, 60_000)) {
+			publisher.publish(result("rejected"));
+			Assert.assertTrue(publisher.flush(5000));
+			Assert.assertEquals(endpoint.getReceived().size(), 1, "A rejected request is not retried.");
+			Assert.assertEquals(publisher.getFailedCount(), 1);
+			Assert.assertEquals(spool.getPendingCount(), 1, "The rejected result is not marked sent.");
+		}
+	}
+
+	@Test(description = "A result rejected again on replay does not hold up the results behind it")
+	public void replaysPastRejectedResult() throws Exception {
+		File file = spoolFile();
+		try (ResultsEndpointStub endpoint = new ResultsEndpointStub(400, 503, 400);
+				ResultSpool spool = new ResultSpool(file, 4096);
+				ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 0, 10, spool, 100)) {
+			String rejected = TestUtils.asJsonString(result("rejected"));
+			String unavailable = TestUtils.asJsonString(result("unavailable"));
+			publisher.publish(result("rejected"));
+			publisher.publish(result("unavailable"));
+			Assert.assertTrue(publisher.flush(5000));
+			waitUntil(() -> publisher.getFailedCount() == 0);
+			Assert.assertEquals(endpoint.getReceived(),
+					Arrays.asList(rejected, unavailable, rejected, unavailable, rejected));
+			Assert.assertEquals(spool.getPendingCount(), 0);
+		}
+	}
+
+	@Test(description = "An endpoint that does not answer in results.read.timeout.ms fails the request")
+	public void givesUpOnSlowEndpoint() throws Exception {
+		File file = spoolFile();
+		System.setProperty("results.read.timeout.ms", "100");
+		ConfigManager.reload();
+		try (ResultsEndpointStub endpoint = new ResultsEndpointStub();
+				ResultSpool spool = new ResultSpool(file, 4096);
+				ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 0, 10, spool, 60_000)) {
+			endpoint.delay(2000);
+			long start = System.nanoTime();
+			publisher.publish(result("slow"));
+			Assert.assertTrue(publisher.flush(5000));
+			Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500),
+					"The post should give up before the endpoint answers.");
+			Assert.assertEquals(publisher.getFailedCount(), 1);
+		} finally {
+			System.clearProperty("results.read.timeout.ms");
+			ConfigManager.reload();
+		}
+	}
+
+	@Test(description = "Closing a publisher stops its worker thread")
+	public void closeReleasesWorker() throws Exception {
+		try (ResultsEndpointStub endpoint = new ResultsEndpointStub()) {
+			ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 3, 10);
+			publisher.publish(result("closed"));
+			Assert.assertTrue(publisher.flush(5000));
+			publisher.close();
+			Assert.assertFalse(Thread.getAllStackTraces().keySet().stream()
+					.anyMatch(thread -> "result-publisher".equals(thread.getName())), "The worker has ended.");
+		}
+	}
+
+	static TestResults result(String name) {
+		TestResults result = new TestResults();
+		result.setTestCaseResults(name);
+		result.setCustomData("");
+		return result;
+	}
+
+	static File spoolFile() throws IOException {
+		File file = Files.createTempFile("results", ".spool").toFile();
+		file.delete();
+		file.deleteOnExit();
+		return file;
+	}
+
+	static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				Assert.fail("Timed out waiting for the publisher.");
+			}
+			Thread.sleep(10);
+		}
+	}
+}
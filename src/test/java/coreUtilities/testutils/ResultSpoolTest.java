@@ -0,0 +1,178 @@
+package coreUtilities.testutils;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResultSpoolTest {
+
+	// Layout of ResultSpool: magic, then length, crc, state, id and payload per record
+	private static final long MAGIC = 0x5941_4b53_5350_4c31L;
+	private static final int HEADER = 8;
+	private static final int RECORD_HEADER = 4 + 4 + 1 + 8;
+	private static final byte PENDING = 1;
+	private static final byte SENT = 2;
+
+	@Test(description = "Pending records survive a crash; a record cut short by it is not recovered")
+	public void recoversPendingRecordsAfterCrash() throws Exception {
+		File file = ResultPublisherTest.spoolFile();
+		int torn;
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			spool.append("a");
+			spool.markSent(spool.append("b"));
+			spool.append("c");
+			torn = HEADER + 3 * (RECORD_HEADER + 1);
+			spool.append("d");
+		}
+		// The length is written last, so a crash during the append leaves it at 0
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(torn);
+			raf.writeInt(0);
+		}
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			List<ResultSpool.Entry> recovered = spool.takeRecovered();
+			Assert.assertEquals(payloads(recovered), Arrays.asList("a", "c"));
+			Assert.assertEquals(ids(recovered), Arrays.asList(1L, 3L));
+			Assert.assertEquals(spool.getPendingCount(), 2);
+			Assert.assertTrue(spool.takeRecovered().isEmpty(), "Recovered records are handed out once.");
+			Assert.assertEquals(spool.append("e").getId(), 4L, "Ids go on after the last complete record.");
+		}
+	}
+
+	@Test(description = "Results with the same payload are separate records and all recovered")
+	public void keepsEqualPayloads() throws Exception {
+		File file = ResultPublisherTest.spoolFile();
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			spool.markSent(spool.append("same"));
+			spool.append("same");
+			spool.append("same");
+		}
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			Assert.assertEquals(ids(spool.takeRecovered()), Arrays.asList(2L, 3L));
+		}
+	}
+
+	@Test(description = "Records are deduplicated by id: a sent id and a repeated pending id are dropped")
+	public void dropsRepeatedIds() throws Exception {
+		File file = ResultPublisherTest.spoolFile();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.writeLong(MAGIC);
+			writeRecord(raf, PENDING, 1, "x");
+			writeRecord(raf, PENDING, 1, "x");
+			writeRecord(raf, PENDING, 2, "x");
+			writeRecord(raf, SENT, 3, "y");
+			writeRecord(raf, PENDING, 3, "y");
+			raf.writeInt(0);
+		}
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			Assert.assertEquals(ids(spool.takeRecovered()), Arrays.asList(1L, 2L));
+			Assert.assertEquals(spool.getPendingCount(), 2);
+		}
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			Assert.assertEquals(ids(spool.takeRecovered()), Arrays.asList(1L, 2L),
+					"The same records are recovered on every reopen.");
+		}
+	}
+
+	@Test(description = "A record whose checksum does not match ends the recovery")
+	public void stopsAtCorruptRecord() throws Exception {
+		File file = ResultPublisherTest.spoolFile();
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			spool.append("a");
+			spool.append("b");
+			spool.append("c");
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(HEADER + (RECORD_HEADER + 1) + RECORD_HEADER);
+			raf.write('z');
+		}
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			Assert.assertEquals(payloads(spool.takeRecovered()), Arrays.asList("a"));
+		}
+	}
+
+	@Test(description = "Once nothing is pending the next record is written at the start of the file")
+	public void startsOverWhenNothingPending() throws Exception {
+		File file = ResultPublisherTest.spoolFile();
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			spool.markSent(spool.append("a"));
+			spool.markSent(spool.append("b"));
+			spool.append("c");
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			raf.seek(HEADER);
+			Assert.assertEquals(raf.readInt(), 1);
+			raf.seek(HEADER + 4 + 4 + 1);
+			Assert.assertEquals(raf.readLong(), 3L, "Record 3 overwrote record 1.");
+			raf.seek(HEADER + RECORD_HEADER + 1);
+			Assert.assertEquals(raf.readInt(), 0, "The old records behind it are cut off.");
+		}
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			Assert.assertEquals(payloads(spool.takeRecovered()), Arrays.asList("c"));
+		}
+	}
+
+	@Test(description = "Results left by a crashed run are sent exactly once, after a 503")
+	public void sendsRecoveredResultsOnce() throws Exception {
+		File file = ResultPublisherTest.spoolFile();
+		String first = TestUtils.asJsonString(ResultPublisherTest.result("first"));
+		String second = TestUtils.asJsonString(ResultPublisherTest.result("second"));
+		try (ResultSpool spool = new ResultSpool(file, 4096)) {
+			spool.append(first);
+			spool.append(second);
+		}
+		try (ResultsEndpointStub endpoint = new ResultsEndpointStub(503)) {
+			try (ResultSpool spool = new ResultSpool(file, 4096);
+					ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 3, 10, spool, 100)) {
+				Assert.assertTrue(publisher.flush(5000));
+				Assert.assertEquals(spool.getPendingCount(), 0);
+				Assert.assertEquals(publisher.getFailedCount(), 0);
+			}
+			Assert.assertEquals(endpoint.getReceived(), Arrays.asList(first, first, second),
+					"The first result is retried after the 503, then each is accepted once.");
+
+			try (ResultSpool spool = new ResultSpool(file, 4096)) {
+				Assert.assertTrue(spool.takeRecovered().isEmpty(), "Nothing is left for the next run.");
+				try (ResultPublisher publisher = new ResultPublisher(endpoint.getUrl(), 20, 10, 3, 10, spool, 100)) {
+					Thread.sleep(300);
+					Assert.assertTrue(publisher.flush(5000));
+				}
+			}
+			Assert.assertEquals(endpoint.getReceived().size(), 3, "Nothing is sent a second time.");
+		}
+	}
+
+	private static void writeRecord(RandomAccessFile raf, byte state, long id, String json) throws Exception {
+		byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		raf.writeInt(payload.length);
+		raf.writeInt((int) crc.getValue());
+		raf.writeByte(state);
+		raf.writeLong(id);
+		raf.write(payload);
+	}
+
+	private static List<String> payloads(List<ResultSpool.Entry> entries) {
+		List<String> payloads = new ArrayList<>();
+		for (ResultSpool.Entry entry : entries) {
+			payloads.add(entry.getJson());
+		}
+		return payloads;
+	}
+
+	private static List<Long> ids(List<ResultSpool.Entry> entries) {
+		List<Long> ids = new ArrayList<>();
+		for (ResultSpool.Entry entry : entries) {
+			ids.add(entry.getId());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,85 @@
+package coreUtilities.testutils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local results endpoint for the publisher tests. It answers with the queued
+ * statuses one by one and with 200 once they are used up, and keeps the body
+ * of every request it gets.
+ */
+class ResultsEndpointStub implements AutoCloseable {
+
+	private final HttpServer server;
+	private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+	private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+	private volatile long delayMillis;
+
+	ResultsEndpointStub(Integer... statuses) throws IOException {
+		this.statuses.addAll(Arrays.asList(statuses));
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	String getUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/results";
+	}
+
+	// Every request, accepted or not
+	List<String> getReceived() {
+		synchronized (received) {
+			return new ArrayList<>(received);
+		}
+	}
+
+	void answer(Integer... next) {
+		statuses.addAll(Arrays.asList(next));
+	}
+
+	void delay(long millis) {
+		delayMillis = millis;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] buffer = new byte[4096];
+			for (int count; (count = in.read(buffer)) > 0;) {
+				body.write(buffer, 0, count);
+			}
+		}
+		received.add(new String(body.toByteArray(), StandardCharsets.UTF_8));
+		if (delayMillis > 0) {
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		Integer status = statuses.poll();
+		byte[] answer = "{}".getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status == null ? 200 : status, answer.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(answer);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package coreUtilities.testutils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import restConfig.ConfigManager;
+
+public class TestDataProviderTest {
+
+	private static final int ROWS = 10;
+
+	@AfterMethod(alwaysRun = true)
+	public void clearShard() {
+		System.clearProperty("data.shard.count");
+		System.clearProperty("data.shard.index");
+		ConfigManager.reload();
+	}
+
+	@Test(description = "Without sharding every row is handed out in order")
+	public void handsOutAllRows() {
+		Assert.assertEquals(drain(TestDataProvider.shard(rows(ROWS))), range(0, ROWS, 1));
+	}
+
+	@Test(description = "Forks numbered 1..count get disjoint shards that together hold every row")
+	public void shardsAreDisjointAndComplete() {
+		Set<Integer> seen = new HashSet<>();
+		for (int fork = 1; fork <= 3; fork++) {
+			useShard(3, fork);
+			List<Integer> shard = drain(TestDataProvider.shard(rows(ROWS)));
+			Assert.assertEquals(shard, range(fork % 3, ROWS, 3), "Fork " + fork + " gets every third row.");
+			for (Integer row : shard) {
+				Assert.assertTrue(seen.add(row), "Row " + row + " is in two shards.");
+			}
+		}
+		Assert.assertEquals(seen.size(), ROWS);
+	}
+
+	@Test(description = "A shard past the end of the rows is empty and says so")
+	public void emptyShard() {
+		useShard(4, 3);
+		Iterator<Object[]> shard = TestDataProvider.shard(rows(2));
+		Assert.assertFalse(shard.hasNext());
+		Assert.assertThrows(NoSuchElementException.class, shard::next);
+	}
+
+	@Test(description = "Threads of a parallel data provider get each row of the shard exactly once")
+	public void sharedByThreads() throws Exception {
+		useShard(2, 0);
+		Iterator<Object[]> shard = TestDataProvider.shard(rows(10_000));
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		List<Future<List<Integer>>> pulled = new ArrayList<>();
+		try {
+			for (int t = 0; t < 8; t++) {
+				pulled.add(threads.submit(pull(shard)));
+			}
+			List<Integer> all = new ArrayList<>();
+			for (Future<List<Integer>> each : pulled) {
+				all.addAll(each.get());
+			}
+			Collections.sort(all);
+			Assert.assertEquals(all, range(0, 10_000, 2));
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+
+	@Test(description = "JSON rows are sharded like any other rows")
+	public void shardsJsonRows() throws Exception {
+		File file = File.createTempFile("rows", ".json");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "[{\"id\":0},{\"id\":1},{\"id\":2},{\"id\":3}]".getBytes(StandardCharsets.UTF_8));
+		useShard(2, 1);
+		List<Object> ids = new ArrayList<>();
+		for (Iterator<Object[]> rows = TestDataProvider.jsonRows(file.getPath()); rows.hasNext();) {
+			ids.add(((Map<?, ?>) rows.next()[0]).get("id"));
+		}
+		Assert.assertEquals(ids.toString(), "[1, 3]");
+	}
+
+	private static void useShard(int count, int index) {
+		System.setProperty("data.shard.count", String.valueOf(count));
+		System.setProperty("data.shard.index", String.valueOf(index));
+		ConfigManager.reload();
+	}
+
+	// Calls next() alone: another thread may take the last row between hasNext() and next()
+	private static Callable<List<Integer>> pull(Iterator<Object[]> rows) {
+		return () -> {
+			List<Integer> pulled = new ArrayList<>();
+			while (true) {
+				try {
+					pulled.add((Integer) rows.next()[0]);
+				} catch (NoSuchElementException e) {
+					return pulled;
+				}
+			}
+		};
+	}
+
+	private static Iterator<Object[]> rows(int count) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			rows.add(new Object[] { i });
+		}
+		return rows.iterator();
+	}
+
+	private static List<Integer> drain(Iterator<Object[]> rows) {
+		List<Integer> values = new ArrayList<>();
+		while (rows.hasNext()) {
+			values.add((Integer) rows.next()[0]);
+		}
+		return values;
+	}
+
+	private static List<Integer> range(int from, int to, int step) {
+		List<Integer> values = new ArrayList<>();
+		for (int i = from; i < to; i += step) {
+			values.add(i);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,31 @@
+package rest;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResponseCacheTest {
+
+	private static final String URL = "http://127.0.0.1/api/Billing/ListUsers";
+
+	@Test(description = "The key is the URL plus the first 16 bytes of the header's SHA-256, in hex")
+	public void keyHashesAuthorizationHeader() throws Exception {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest("Bearer a".getBytes(StandardCharsets.UTF_8));
+		String expected = String.format("%064x", new BigInteger(1, digest)).substring(0, 32);
+		Assert.assertEquals(ResponseCache.key(URL, "Bearer a"), URL + "#" + expected);
+	}
+
+	@Test(description = "Repeated and alternating tokens keep their own keys")
+	public void keysFollowTheToken() {
+		String first = ResponseCache.key(URL, "Bearer a");
+		String second = ResponseCache.key(URL, "Bearer b");
+		Assert.assertNotEquals(second, first);
+		Assert.assertEquals(ResponseCache.key(URL, "Bearer a"), first);
+		Assert.assertEquals(ResponseCache.key(URL, "Bearer a"), first);
+		Assert.assertEquals(ResponseCache.key(URL, "Bearer b"), second);
+		Assert.assertEquals(ResponseCache.key(URL, null), ResponseCache.key(URL, ""));
+	}
+}
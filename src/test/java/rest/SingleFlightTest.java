@@ -0,0 +1,151 @@
+package rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	@Test(description = "Concurrent callers of one key share a single call and its result")
+	public void coalescesConcurrentCalls() throws Exception {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			results.add(callers.submit(() -> flight.call("token", () -> {
+				runs.incrementAndGet();
+				awaitQuietly(release);
+				return 42;
+			})));
+			waitUntil(() -> flight.isInFlight("token"));
+			for (int i = 1; i < CALLERS; i++) {
+				results.add(callers.submit(() -> flight.call("token", () -> {
+					runs.incrementAndGet();
+					return -1;
+				})));
+			}
+			waitUntil(() -> flight.getCoalesced() == CALLERS - 1);
+			release.countDown();
+			for (Future<Integer> result : results) {
+				Assert.assertEquals(result.get(5, TimeUnit.SECONDS), Integer.valueOf(42), "All callers get one result.");
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+		Assert.assertEquals(runs.get(), 1, "Only the first caller runs the call.");
+		Assert.assertEquals(flight.getCalls(), 1L);
+		Assert.assertEquals(flight.getCoalesced(), (long) CALLERS - 1);
+		Assert.assertFalse(flight.isInFlight("token"), "The key is forgotten once the call completes.");
+	}
+
+	@Test(description = "A failure reaches every waiting caller and is not remembered")
+	public void sharesFailureAndForgetsKey() throws Exception {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			Future<Integer> first = callers.submit(() -> flight.call("key", () -> {
+				awaitQuietly(release);
+				throw new IllegalStateException("down");
+			}));
+			waitUntil(() -> flight.isInFlight("key"));
+			Future<Integer> second = callers.submit(() -> flight.call("key", () -> 1));
+			waitUntil(() -> flight.getCoalesced() == 1);
+			release.countDown();
+			assertFailure(first, "down");
+			assertFailure(second, "down");
+		} finally {
+			callers.shutdownNow();
+		}
+		Assert.assertEquals(flight.call("key", () -> 7), Integer.valueOf(7), "A later caller starts a new call.");
+		Assert.assertEquals(flight.getCalls(), 2L);
+	}
+
+	@Test(description = "Different keys never wait for each other")
+	public void keysAreIndependent() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		String result = flight.call("outer", () -> flight.call("inner", () -> "inner") + "+outer");
+		Assert.assertEquals(result, "inner+outer");
+		Assert.assertEquals(flight.getCalls(), 2L);
+		Assert.assertEquals(flight.getCoalesced(), 0L);
+	}
+
+	@Test(description = "Async callers of one key get the same future until it completes")
+	public void executeSharesTheRunningFuture() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CompletableFuture<String> started = new CompletableFuture<>();
+		AtomicInteger runs = new AtomicInteger();
+
+		CompletableFuture<String> first = flight.execute("key", () -> {
+			runs.incrementAndGet();
+			return started;
+		});
+		CompletableFuture<String> second = flight.execute("key", () -> {
+			runs.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		Assert.assertSame(second, first, "The second caller joins the running call.");
+		Assert.assertTrue(flight.isInFlight("key"));
+
+		started.complete("done");
+		Assert.assertEquals(first.get(5, TimeUnit.SECONDS), "done");
+		Assert.assertFalse(flight.isInFlight("key"));
+		Assert.assertEquals(runs.get(), 1);
+
+		CompletableFuture<String> third = flight.execute("key", () -> CompletableFuture.completedFuture("again"));
+		Assert.assertEquals(third.get(5, TimeUnit.SECONDS), "again", "A completed call is not cached.");
+	}
+
+	@Test(description = "A call that throws before returning its future fails the future and frees the key")
+	public void executeFailsWhenStartThrows() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CompletableFuture<String> failed = flight.execute("key", () -> {
+			throw new IllegalArgumentException("bad request");
+		});
+		Assert.assertTrue(failed.isCompletedExceptionally());
+		Assert.assertFalse(flight.isInFlight("key"));
+	}
+
+	private static void assertFailure(Future<Integer> result, String message) throws Exception {
+		try {
+			result.get(5, TimeUnit.SECONDS);
+			Assert.fail("The call should have failed.");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException, "The failure is passed on as it is.");
+			Assert.assertEquals(e.getCause().getMessage(), message);
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				Assert.fail("Timed out waiting for the callers.");
+			}
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TokenManagerTest {
+
+	@Test(description = "The first token is fetched right away and its expiry read from the JWT")
+	public void readsFirstToken() {
+		long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600;
+		String jwt = jwt(exp);
+		TokenManager manager = new TokenManager(() -> jwt, 60_000, 30_000);
+		try {
+			Assert.assertEquals(manager.getToken(), jwt);
+			Assert.assertEquals(manager.getAuthHeader(), "Bearer " + jwt);
+			Assert.assertEquals(manager.getExpiresAt(), TimeUnit.SECONDS.toMillis(exp));
+		} finally {
+			manager.stop();
+		}
+	}
+
+	@Test(description = "A provider failing on the first call fails the construction",
+			expectedExceptions = IllegalStateException.class)
+	public void failsWithoutFirstToken() {
+		new TokenManager(() -> {
+			throw new IllegalStateException("login down");
+		}, 60_000, 30_000);
+	}
+
+	@Test(description = "A failed refresh keeps the current token")
+	public void keepsTokenWhenRefreshFails() {
+		StubProvider provider = new StubProvider();
+		TokenManager manager = new TokenManager(provider, 60_000, 30_000);
+		try {
+			provider.failing = true;
+			Assert.assertFalse(manager.refreshNow());
+			Assert.assertEquals(manager.getToken(), "token-1");
+			provider.failing = false;
+			Assert.assertTrue(manager.refreshNow());
+			Assert.assertEquals(manager.getToken(), "token-3");
+		} finally {
+			manager.stop();
+		}
+	}
+
+	@Test(description = "Concurrent refreshNow calls share one fetch and its outcome")
+	public void concurrentRefreshesFetchOnce() throws Exception {
+		StubProvider provider = new StubProvider();
+		TokenManager manager = new TokenManager(provider, 60_000, 30_000);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			provider.block();
+			Future<Boolean> first = callers.submit(manager::refreshNow);
+			waitUntil(() -> provider.waiting.get() == 1);
+			Future<Boolean> second = callers.submit(manager::refreshNow);
+			Thread.sleep(50);
+			provider.release();
+			Assert.assertTrue(first.get(5, TimeUnit.SECONDS));
+			Assert.assertTrue(second.get(5, TimeUnit.SECONDS));
+			Assert.assertEquals(provider.calls.get(), 2, "One fetch for the first token, one for both refreshes.");
+			Assert.assertEquals(manager.getToken(), "token-2");
+		} finally {
+			callers.shutdownNow();
+			manager.stop();
+		}
+	}
+
+	@Test(description = "A token close to its expiry is renewed in the background")
+	public void refreshesBeforeExpiry() throws Exception {
+		long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 2;
+		StubProvider provider = new StubProvider(jwt(exp));
+		TokenManager manager = new TokenManager(provider, 1_900, 30_000);
+		try {
+			waitUntil(() -> "token-2".equals(manager.getToken()));
+			Assert.assertEquals(manager.getExpiresAt(), Long.MAX_VALUE, "The stub's later tokens never expire.");
+			Thread.sleep(100);
+			Assert.assertEquals(provider.calls.get(), 2, "A token without expiry is not refreshed again.");
+		} finally {
+			manager.stop();
+		}
+	}
+
+	@Test(description = "A refresh running while the manager is stopped plans no further refresh")
+	public void stopWinsOverRunningRefresh() throws Exception {
+		StubProvider provider = new StubProvider();
+		TokenManager manager = new TokenManager(provider, 60_000, 20);
+		ExecutorService caller = Executors.newSingleThreadExecutor();
+		try {
+			provider.failing = true;
+			provider.block();
+			Future<Boolean> refresh = caller.submit(manager::refreshNow);
+			waitUntil(() -> provider.waiting.get() == 1);
+			manager.stop();
+			provider.release();
+			Assert.assertFalse(refresh.get(5, TimeUnit.SECONDS));
+			int calls = provider.calls.get();
+			Thread.sleep(200);
+			manager.getAuthHeader();
+			Thread.sleep(50);
+			Assert.assertEquals(provider.calls.get(), calls, "A stopped manager does not retry on its own.");
+		} finally {
+			caller.shutdownNow();
+		}
+	}
+
+	private static String jwt(long exp) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+				+ encoder.encodeToString(("{\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8)) + ".sig";
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				Assert.fail("Timed out waiting for the token manager.");
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	// Hands out token-1, token-2, ... unless told to fail; can hold fetches until released
+	private static class StubProvider implements TokenProvider {
+		private final String first;
+		private final AtomicInteger calls = new AtomicInteger();
+		private final AtomicInteger waiting = new AtomicInteger();
+		private volatile CountDownLatch gate;
+		private volatile boolean failing;
+
+		private StubProvider() {
+			this(null);
+		}
+
+		private StubProvider(String first) {
+			this.first = first;
+		}
+
+		private void block() {
+			gate = new CountDownLatch(1);
+		}
+
+		private void release() {
+			gate.countDown();
+		}
+
+		@Override
+		public String fetchToken() throws Exception {
+			int call = calls.incrementAndGet();
+			CountDownLatch held = gate;
+			if (held != null) {
+				waiting.incrementAndGet();
+				held.await(5, TimeUnit.SECONDS);
+			}
+			if (failing) {
+				throw new IllegalStateException("login down");
+			}
+			return call == 1 && first != null ? first : "token-" + call;
+		}
+	}
+}